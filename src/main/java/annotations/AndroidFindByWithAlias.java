@@ -11,14 +11,23 @@ import java.lang.annotation.Target;
  * <b>This annotation combines AndroidFindBy with an alias for better logging and reporting.
  * <ul>
  * <li> <b>androidFindBy:</b> The locator strategy for the element.</li>
+ * <li> <b>flutterFindBy:</b> Optional Flutter finder for the element, resolved in the FLUTTER context. When set it becomes the primary
+ * strategy and androidFindBy, if also set, becomes a fallback.</li>
  * <li> <b>alias:</b> The alias to be used for logging and reporting.</li>
+ * <li> <b>fallbacks:</b> Optional alternative locator strategies for the same element. The proxy tries all strategies in the order learned from
+ * previous runs, fastest working strategy first.</li>
  * </ul></b>
- * <code>DO NOT CHANGE ANYTHING HERE.</code>
+ * <p>Page objects and the registries generated by the LocatorRegistryProcessor depend on this annotation: new elements must be optional,
+ * with a default, and CompiledLocator.compile and the processor must be updated together.</p>
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.FIELD, ElementType.METHOD})
 public @interface AndroidFindByWithAlias {
-    AndroidFindBy androidFindBy();
+    AndroidFindBy androidFindBy() default @AndroidFindBy;
+
+    FlutterFindBy flutterFindBy() default @FlutterFindBy;
 
     String alias();
+
+    AndroidFindBy[] fallbacks() default {};
 }
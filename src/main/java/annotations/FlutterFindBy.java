@@ -0,0 +1,37 @@
+package annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <b>Flutter finder for an aliased element, sent to the appium-flutter-driver in the FLUTTER context.</b>
+ * <ul>
+ * <li> <b>valueKey:</b> The value of the widget's ValueKey (cheapest lookup). Use <b>valueKeyType</b> "int" for integer keys.</li>
+ * <li> <b>semanticsLabel:</b> The semantics label of the widget.</li>
+ * <li> <b>text:</b> The text of a Text widget.</li>
+ * <li> <b>type:</b> The runtime type of the widget, e.g. "ElevatedButton".</li>
+ * <li> <b>tooltip:</b> The tooltip message of the widget.</li>
+ * <li> <b>descendantOf / ancestorOf:</b> Optional widget the match must be a descendant / an ancestor of (only the first entry is used).</li>
+ * </ul>
+ * The first non-empty finder is used, in the order listed above.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({})
+public @interface FlutterFindBy {
+    String valueKey() default "";
+
+    String valueKeyType() default "String";
+
+    String semanticsLabel() default "";
+
+    String text() default "";
+
+    String type() default "";
+
+    String tooltip() default "";
+
+    FlutterMatch[] descendantOf() default {};
+
+    FlutterMatch[] ancestorOf() default {};
+}
@@ -0,0 +1,24 @@
+package annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <b>A simple Flutter finder used as the reference widget of the descendantOf/ancestorOf relations in {@link FlutterFindBy}.</b>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({})
+public @interface FlutterMatch {
+    String valueKey() default "";
+
+    String valueKeyType() default "String";
+
+    String semanticsLabel() default "";
+
+    String text() default "";
+
+    String type() default "";
+
+    String tooltip() default "";
+}
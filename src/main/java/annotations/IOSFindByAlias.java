@@ -7,11 +7,22 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * <b>This annotation combines iOSXCUITFindBy with an alias for better logging and reporting.
+ * <ul>
+ * <li> <b>value:</b> The locator strategy for the element.</li>
+ * <li> <b>alias:</b> The alias to be used for logging and reporting. Optional, the field name is used when it is empty.</li>
+ * <li> <b>fallbacks:</b> Optional alternative locator strategies for the same element, tried in the order learned from previous runs.</li>
+ * </ul></b>
+ * <p>A field can carry both this annotation and {@link AndroidFindByWithAlias}; the AnnotationProcessor picks the one matching the platform
+ * of the driver, so the same page object runs on both platforms.</p>
+ */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.FIELD)
 public @interface IOSFindByAlias {
-    iOSXCUITFindBy value(); // Embedding the original AndroidFindBy
+    iOSXCUITFindBy value();
 
-    String alias() default ""; // Optional alias defaulting to an empty string
-    // TODO fix this with what we have for Android
+    String alias() default "";
+
+    iOSXCUITFindBy[] fallbacks() default {};
 }
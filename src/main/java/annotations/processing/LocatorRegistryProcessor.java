@@ -0,0 +1,333 @@
+package annotations.processing;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <b>Generates a static locator registry for every class with `@AndroidFindByWithAlias` or `@IOSFindByAlias` fields.</b>
+ * <p>For a page class <code>AndroidLocator</code> this writes <code>AndroidLocatorRegistry</code> into the same package. Its <code>register</code>
+ * method assigns a proxy WebElement to every aliased field with plain assignments, so no reflection is needed when the locators are loaded.
+ * Fields carrying both annotations get the locator matching the platform of the driver.</p>
+ * <p>The processor is compiled in its own pass before the main sources, see the maven-compiler-plugin executions in pom.xml.</p>
+ */
+@SupportedAnnotationTypes({LocatorRegistryProcessor.ANDROID_ANNOTATION, LocatorRegistryProcessor.IOS_ANNOTATION})
+public class LocatorRegistryProcessor extends AbstractProcessor {
+
+    static final String ANDROID_ANNOTATION = "annotations.AndroidFindByWithAlias";
+    static final String IOS_ANNOTATION = "annotations.IOSFindByAlias";
+    private static final String[] ANDROID_STRATEGIES = {"id", "xpath", "accessibility", "className", "uiAutomator", "tagName"};
+    private static final String[] IOS_STRATEGIES = {"accessibility", "id", "name", "iOSClassChain", "iOSNsPredicate", "className", "xpath", "tagName"};
+    private static final String[] FLUTTER_FINDERS = {"valueKey", "semanticsLabel", "text", "type", "tooltip"};
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<Element>> fieldsByPage = new LinkedHashMap<>();
+        for (TypeElement annotation : annotations) {
+            for (Element field : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (field.getKind() != ElementKind.FIELD) {
+                    continue;
+                }
+                if (field.getModifiers().contains(Modifier.PRIVATE)) {
+                    error(field, "Aliased locator fields must not be private to be wired by the generated registry");
+                    continue;
+                }
+                List<Element> fields = fieldsByPage.computeIfAbsent((TypeElement) field.getEnclosingElement(), page -> new ArrayList<>());
+                if (!fields.contains(field)) {
+                    fields.add(field);
+                }
+            }
+        }
+        for (Map.Entry<TypeElement, List<Element>> entry : fieldsByPage.entrySet()) {
+            writeRegistry(entry.getKey(), entry.getValue());
+        }
+        return false;
+    }
+
+    /**
+     * <b>Writes the registry source for one page class.</b>
+     *
+     * @param page   the class containing the aliased fields.
+     * @param fields the aliased fields of the class.
+     */
+    private void writeRegistry(TypeElement page, List<Element> fields) {
+        if (page.getModifiers().contains(Modifier.PRIVATE)) {
+            error(page, "Page classes with aliased locator fields must not be private to be wired by the generated registry");
+            return;
+        }
+        String packageName = processingEnv.getElementUtils().getPackageOf(page).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(page).toString();
+        // Nested pages get their outer classes in the name, e.g. Screens$Login becomes Screens_LoginRegistry
+        String pageName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        String registryName = pageName.replace('$', '_') + "Registry";
+        String pageType = page.getQualifiedName().toString();
+        String qualifiedRegistryName = packageName.isEmpty() ? registryName : packageName + "." + registryName;
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import io.appium.java_client.AppiumDriver;\n");
+        source.append("import utilities.AnnotationProcessor;\n");
+        source.append("import utilities.CompiledLocator;\n");
+        source.append("import utilities.FlutterFinder;\n");
+        source.append("import utilities.WebElementProxyHandler;\n\n");
+        source.append("/**\n * <b>Generated by LocatorRegistryProcessor from the aliased fields of ").append(pageType).append(". Do not edit.</b>\n */\n");
+        source.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n");
+        source.append("public final class ").append(registryName).append(" {\n\n");
+        source.append("    private ").append(registryName).append("() {\n    }\n\n");
+        source.append("    /**\n     * <b>Assigns a proxy WebElement to every aliased field of ").append(pageType).append(".</b>\n     *\n");
+        source.append("     * @param driver the AppiumDriver instance used to interact with elements, Android or iOS.\n");
+        source.append("     * @param page   the page instance for non-static fields, may be null if all fields are static.\n     */\n");
+        source.append("    public static void register(AppiumDriver driver, ").append(pageType).append(" page) {\n");
+        source.append("        boolean ios = AnnotationProcessor.isIOS(driver);\n");
+        for (Element field : fields) {
+            String target = field.getModifiers().contains(Modifier.STATIC) ? pageType : "page";
+            source.append("        ").append(target).append('.').append(field.getSimpleName())
+                    .append(" = WebElementProxyHandler.createProxy(driver, ").append(platformLocatorExpression(field)).append(");\n");
+        }
+        source.append("    }\n}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedRegistryName, page).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            error(page, "Could not write " + registryName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * <b>Builds the CompiledLocator expression for the platform annotations of one field.</b>
+     *
+     * @param field the aliased field.
+     * @return the Java expression, choosing between the iOS and Android locator at runtime when both are declared.
+     */
+    private String platformLocatorExpression(Element field) {
+        boolean android = findAnnotation(field, ANDROID_ANNOTATION) != null;
+        boolean ios = findAnnotation(field, IOS_ANNOTATION) != null;
+        if (android && ios) {
+            return "ios ? " + iOSLocatorExpression(field) + " : " + compiledLocatorExpression(field);
+        }
+        return ios ? iOSLocatorExpression(field) : compiledLocatorExpression(field);
+    }
+
+    /**
+     * <b>Builds the CompiledLocator expression for the IOSFindByAlias annotation of a field.</b>
+     *
+     * @param field the aliased field.
+     * @return the Java expression creating its compiled locator.
+     */
+    private String iOSLocatorExpression(Element field) {
+        Map<String, Object> aliasValues = values(findAnnotation(field, IOS_ANNOTATION));
+        String alias = (String) aliasValues.get("alias");
+        if (alias.isEmpty()) {
+            alias = field.getSimpleName().toString(); // like CompiledLocator.compile(IOSFindByAlias, String)
+        }
+        List<String> candidates = new ArrayList<>();
+        candidates.add(strategyExpression(field, values((AnnotationMirror) aliasValues.get("value")), alias, IOS_STRATEGIES));
+        List<?> fallbacks = (List<?>) aliasValues.get("fallbacks");
+        if (fallbacks != null) {
+            for (Object fallback : fallbacks) {
+                candidates.add(strategyExpression(field, values((AnnotationMirror) ((AnnotationValue) fallback).getValue()), alias, IOS_STRATEGIES));
+            }
+        }
+        return withFallbacks(candidates);
+    }
+
+    /**
+     * <b>Joins candidate expressions into a CompiledLocator expression, the first one being the primary strategy.</b>
+     *
+     * @param candidates the candidate expressions.
+     * @return the Java expression.
+     */
+    private String withFallbacks(List<String> candidates) {
+        StringBuilder expression = new StringBuilder(candidates.get(0));
+        if (candidates.size() > 1) {
+            expression.append(".withFallbacks(").append(String.join(", ", candidates.subList(1, candidates.size()))).append(")");
+        }
+        return expression.toString();
+    }
+
+    /**
+     * <b>Builds the CompiledLocator expression for the AndroidFindByWithAlias annotation of a field.</b>
+     * <p>The candidates are ordered like CompiledLocator.compile(AndroidFindByWithAlias): the Flutter finder if set, the AndroidFindBy, then
+     * the declared fallbacks.</p>
+     *
+     * @param field the aliased field.
+     * @return the Java expression creating its compiled locator.
+     */
+    private String compiledLocatorExpression(Element field) {
+        AnnotationMirror aliasAnnotation = findAnnotation(field, ANDROID_ANNOTATION);
+        Map<String, Object> aliasValues = values(aliasAnnotation);
+        String alias = (String) aliasValues.get("alias");
+        Map<String, Object> findBy = values((AnnotationMirror) aliasValues.get("androidFindBy"));
+        Map<String, Object> flutterFindBy = values((AnnotationMirror) aliasValues.get("flutterFindBy"));
+
+        List<String> candidates = new ArrayList<>();
+        String flutterFinder = flutterFinderExpression(field, flutterFindBy);
+        if (flutterFinder != null) {
+            candidates.add("CompiledLocator.of(\"flutter\", FlutterFinder.encode(" + relatedFinderExpression(field, flutterFindBy, flutterFinder)
+                    + "), " + literal(alias) + ")");
+            if (hasStrategy(findBy)) {
+                candidates.add(strategyExpression(field, findBy, alias));
+            }
+        } else {
+            candidates.add(strategyExpression(field, findBy, alias));
+        }
+        List<?> fallbacks = (List<?>) aliasValues.get("fallbacks");
+        if (fallbacks != null) {
+            for (Object fallback : fallbacks) {
+                candidates.add(strategyExpression(field, values((AnnotationMirror) ((AnnotationValue) fallback).getValue()), alias));
+            }
+        }
+        return withFallbacks(candidates);
+    }
+
+    private boolean hasStrategy(Map<String, Object> findBy) {
+        for (String strategy : ANDROID_STRATEGIES) {
+            Object value = findBy.get(strategy);
+            if (value instanceof String && !((String) value).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <b>Wraps a Flutter finder expression in a Descendant or Ancestor finder when the annotation asks for one.</b>
+     *
+     * @param field         the aliased field, for error reporting.
+     * @param flutterFindBy the values of the FlutterFindBy annotation.
+     * @param matching      the expression of the finder itself.
+     * @return the Java expression creating the finder map.
+     */
+    private String relatedFinderExpression(Element field, Map<String, Object> flutterFindBy, String matching) {
+        for (String relation : new String[]{"descendantOf", "ancestorOf"}) {
+            List<?> related = (List<?>) flutterFindBy.get(relation);
+            if (related != null && !related.isEmpty()) {
+                String of = flutterFinderExpression(field, values((AnnotationMirror) ((AnnotationValue) related.get(0)).getValue()));
+                if (of == null) {
+                    error(field, "Flutter " + relation + " needs one of: valueKey, semanticsLabel, text, type, tooltip");
+                    return matching;
+                }
+                return "FlutterFinder." + ("descendantOf".equals(relation) ? "descendant" : "ancestor") + "(" + of + ", " + matching + ")";
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * <b>Builds a FlutterFinder expression for a FlutterFindBy or FlutterMatch annotation.</b>
+     * <p>The expression passes the annotation values to FlutterFinder.firstOf, the routine CompiledLocator uses at runtime, so both pick the
+     * same finder. Values that would fail there are reported as compile errors.</p>
+     *
+     * @param field  the aliased field, for error reporting.
+     * @param finder the values of the annotation.
+     * @return the Java expression creating the finder map, or null if no finder is set.
+     */
+    private String flutterFinderExpression(Element field, Map<String, Object> finder) {
+        boolean empty = true;
+        for (String name : FLUTTER_FINDERS) {
+            if (!((String) finder.get(name)).isEmpty()) {
+                empty = false;
+            }
+        }
+        if (empty) {
+            return null;
+        }
+        String valueKey = (String) finder.get("valueKey");
+        String valueKeyType = (String) finder.get("valueKeyType");
+        if (!"String".equals(valueKeyType) && !"int".equals(valueKeyType)) {
+            error(field, "Flutter valueKeyType must be \"String\" or \"int\", not \"" + valueKeyType + "\"");
+        } else if ("int".equals(valueKeyType) && !valueKey.isEmpty()) {
+            try {
+                Integer.parseInt(valueKey);
+            } catch (NumberFormatException e) {
+                error(field, "Flutter valueKey '" + valueKey + "' is not an int, set valueKeyType to \"String\"");
+            }
+        }
+        return "FlutterFinder.firstOf(" + literal(valueKey) + ", " + literal(valueKeyType) + ", " + literal((String) finder.get("semanticsLabel"))
+                + ", " + literal((String) finder.get("text")) + ", " + literal((String) finder.get("type")) + ", "
+                + literal((String) finder.get("tooltip")) + ")";
+    }
+
+    /**
+     * <b>Builds a CompiledLocator.of(...) expression from the first non-empty strategy of a find-by annotation.</b>
+     *
+     * @param field  the aliased field, for error reporting.
+     * @param findBy the values of the find-by annotation.
+     * @param alias  the alias of the field.
+     * @return the Java expression creating the compiled locator.
+     */
+    private String strategyExpression(Element field, Map<String, Object> findBy, String alias) {
+        return strategyExpression(field, findBy, alias, ANDROID_STRATEGIES);
+    }
+
+    private String strategyExpression(Element field, Map<String, Object> findBy, String alias, String[] strategies) {
+        for (String strategy : strategies) {
+            Object value = findBy.get(strategy);
+            if (value instanceof String && !((String) value).isEmpty()) {
+                return "CompiledLocator.of(" + literal(strategy) + ", " + literal((String) value) + ", " + literal(alias) + ")";
+            }
+        }
+        error(field, "Unsupported locator type for " + alias + ". Pass one of: " + String.join(", ", strategies));
+        return "null";
+    }
+
+    private AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <b>Reads the values of an annotation, including its defaults.</b>
+     *
+     * @param mirror the annotation.
+     * @return the values keyed by element name; nested annotations are returned as AnnotationMirror.
+     */
+    private Map<String, Object> values(AnnotationMirror mirror) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        Map<? extends ExecutableElement, ? extends AnnotationValue> elementValues = processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elementValues.entrySet()) {
+            try {
+                values.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+            } catch (UnsupportedOperationException e) {
+                // A default read from a class file can be left unresolved; the only ones here are the empty relation arrays
+                values.put(entry.getKey().getSimpleName().toString(), List.of());
+            }
+        }
+        return values;
+    }
+
+    private String literal(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
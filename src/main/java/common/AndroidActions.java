@@ -5,16 +5,19 @@ import io.appium.java_client.AppiumBy;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.android.nativekey.AndroidKey;
 import io.appium.java_client.android.nativekey.KeyEvent;
-import org.openqa.selenium.Dimension;
 import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Rectangle;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.interactions.PointerInput;
-import org.openqa.selenium.interactions.Sequence;
 import org.openqa.selenium.remote.RemoteWebElement;
+import utilities.CompiledLocator;
+import utilities.ElementCache;
+import utilities.ElementState;
+import utilities.GestureBatch;
+import utilities.ScrollIndex;
+import utilities.ScrollSearch;
+import utilities.WebElementProxyHandler;
 
 import java.time.Duration;
-import java.util.Arrays;
-import java.util.List;
 
 import static utilities.WebElementProxyHandler.alias;
 import static utilities.WebElementProxyHandler.locatorDetails;
@@ -48,6 +51,7 @@ public class AndroidActions extends AppiumUtils {
     public static void dismissKeyboard() {
         if (driver.isKeyboardShown()) {
             driver.pressKey(new KeyEvent(AndroidKey.BACK));
+            ElementCache.invalidateScreen();
             logInfo("Keyboard dismissed");
         } else {
             testStepWarn("Keyboard was not displayed");
@@ -63,6 +67,7 @@ public class AndroidActions extends AppiumUtils {
         ((JavascriptExecutor) driver).executeScript("mobile: longClickGesture",
                 ImmutableMap.of("elementId", ((RemoteWebElement) element).getId(),
                         "duration", 2000));
+        ElementCache.invalidateScreen();
     }
 
     /**
@@ -73,10 +78,25 @@ public class AndroidActions extends AppiumUtils {
      * @param direction the direction to swipe ("LEFT" or "RIGHT").
      */
     public static void swipe(WebElement element, String direction) {
+        swipe(element, direction, 1, null);
+    }
+
+    /**
+     * <b>Swipes several times on the specified element in one request and checks the end state once.</b>
+     * <p>All swipes are queued in a {@link GestureBatch} with a short pause in between, so a carousel can snap into place, and sent in a
+     * single perform call. The element's location and size are read once, which fits sliders whose pages share the same bounds.</p>
+     *
+     * @param element   the WebElement to swipe on.
+     * @param direction the direction to swipe ("LEFT" or "RIGHT").
+     * @param times     the number of swipes.
+     * @param expected  the WebElement expected to be displayed after the last swipe, or null for no check.
+     */
+    public static void swipe(WebElement element, String direction, int times, WebElement expected) {
         try {
-            // Get element location and size
-            int startX = element.getLocation().getX() + (element.getSize().getWidth() / 2);
-            int startY = element.getLocation().getY() + (element.getSize().getHeight() / 2);
+            // Get element location and size with a single rect request
+            Rectangle rect = ElementState.live(element).getRect();
+            int startX = rect.getX() + (rect.getWidth() / 2);
+            int startY = rect.getY() + (rect.getHeight() / 2);
 
             int endX = startX;
             int endY = startY;
@@ -84,10 +104,10 @@ public class AndroidActions extends AppiumUtils {
             // Define end points based on direction
             switch (direction.toUpperCase()) {
                 case "LEFT":
-                    endX = startX - (element.getSize().getWidth() / 2); // Adjust the swipe length as needed
+                    endX = startX - (rect.getWidth() / 2); // Adjust the swipe length as needed
                     break;
                 case "RIGHT":
-                    endX = startX + (element.getSize().getWidth() / 2); // Adjust the swipe length as needed
+                    endX = startX + (rect.getWidth() / 2); // Adjust the swipe length as needed
                     break;
                 default:
                     testStepFail("Invalid direction: '" + direction + "' Please pass: \n" +
@@ -96,15 +116,19 @@ public class AndroidActions extends AppiumUtils {
                     return;
             }
 
-            // Perform swipe action using PointerInput
-            PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
-            Sequence swipe = new Sequence(finger, 1);
-            swipe.addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), startX, startY));
-            swipe.addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
-            swipe.addAction(finger.createPointerMove(Duration.ofMillis(500), PointerInput.Origin.viewport(), endX, endY));
-            swipe.addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
-            driver.perform(Arrays.asList(swipe));
-            testStepPass("Swiped " + direction + " from " + alias);
+            GestureBatch gestures = new GestureBatch(driver);
+            for (int i = 0; i < times; i++) {
+                if (i > 0) {
+                    gestures.pause(Duration.ofMillis(300));
+                }
+                gestures.swipe(startX, startY, endX, endY, Duration.ofMillis(500));
+            }
+            if (expected != null) {
+                gestures.verifyAfter(() -> findElement(expected, 5, driver) != null);
+            }
+            if (gestures.perform()) {
+                testStepPass("Swiped " + direction + (times > 1 ? " " + times + " times" : "") + " from " + alias);
+            }
 
         } catch (Exception e) {
             logError("Cannot swipe " + direction + " from " + alias + " | " + locatorDetails);
@@ -124,107 +148,55 @@ public class AndroidActions extends AppiumUtils {
     }
 
 
+    /**
+     * <b>Scrolls through the list of the current screen once and indexes where each element appears.</b>
+     * <p>Following calls of {@link #scrollToFindElement(WebElement, String)} on this screen jump to the element with one scroll, see
+     * {@link ScrollIndex}. The list is left scrolled to its end.</p>
+     */
+    public void indexScrollView() {
+        try {
+            int steps = ScrollIndex.build(driver);
+            if (steps > 0) {
+                logInfo("Scroll view indexed with " + steps + " positions");
+            }
+        } catch (Exception e) {
+            logError("Cannot index the scroll view");
+            testStepWarn("[" + e.getClass().getSimpleName() + "] | Message --> " + e.getMessage());
+        }
+    }
+
     /**
      * <b>Scrolls until it finds the specified element in viewport.</b>
-     * <p>This method performs a series of scroll actions until the specified element is displayed in the viewport.
-     * If the element is not found after scrolling to the end, a NoSuchElementException is caught.</p>
+     * <p>The scrolling runs on the server where the locator allows it, see {@link ScrollSearch}. The end of the list is detected by the
+     * server or by comparing the page content before and after each scroll.</p>
      *
      * @param element   the WebElement to scroll to.
      * @param direction the direction to scroll ("up" or "down").
-     * @catches NoSuchElementException if the element is not found after scrolling to the end.
      */
     public void scrollToFindElement(WebElement element, String direction) {
-        Dimension size = driver.manage().window().getSize();
-        int startX = size.getWidth() / 2;
-        int startY, endY;
-        int smallScrollStartY, smallScrollEndY;
-
-        if ("up".equalsIgnoreCase(direction)) {
-            startY = (int) (size.getHeight() * 0.2);
-            endY = (int) (size.getHeight() * 0.8);
-            smallScrollStartY = (int) (size.getHeight() * 0.4);
-            smallScrollEndY = (int) (size.getHeight() * 0.6);
-        } else if ("down".equalsIgnoreCase(direction)) {
-            startY = (int) (size.getHeight() * 0.8);
-            endY = (int) (size.getHeight() * 0.2);
-            smallScrollStartY = (int) (size.getHeight() * 0.6);
-            smallScrollEndY = (int) (size.getHeight() * 0.4);
-        } else {
+        if (!"up".equalsIgnoreCase(direction) && !"down".equalsIgnoreCase(direction)) {
             testStepFail("Invalid direction: '" + direction + "'. Please pass any one of the following\n" +
                     "up\n" +
                     "down");
             return;
         }
 
-        // Save the original implicit wait time
-        Duration originalImplicitWait = driver.manage().timeouts().getImplicitWaitTimeout();
-
+        // The search may never call the proxy, so the static alias could still name the previous element
+        CompiledLocator locator = WebElementProxyHandler.locatorOf(element);
+        String elementAlias = locator == null ? element.toString() : "'" + locator.alias() + "'";
+        String elementDetails = locator == null ? element.toString() : locator.description();
         try {
-            // Set a new implicit wait time (1 second)
-            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(1));
-
-            int scrollCount = 0;
-            while (!isElementInViewPort(element)) {
-                boolean scrolled;
-                if (scrollCount > 0) {
-                    scrolled = performScroll(startX, smallScrollStartY, smallScrollEndY);
-                    logWarning(alias + " is still not in current viewport, performing smaller scrolls in '" + direction + "' direction");
-                } else {
-                    scrolled = performScroll(startX, startY, endY);
-                    logWarning(alias + " is not in current viewport, scrolling " + direction + " little more");
-                }
-                if (!scrolled) {
-                    testStepFail("Reached the end of the scroll view, but " + alias + " is not found." + locatorDetails);
-                }
-                scrollCount++;
+            if (ScrollSearch.scrollTo(driver, element, direction)) {
+                testStepPass("Scrolled " + direction + " to " + elementAlias);
+            } else {
+                testStepFail("Reached the end of the scroll view, but " + elementAlias + " is not found." + elementDetails);
             }
-            testStepPass("Scrolled " + direction + " to " + alias );
         } catch (Exception e) {
-            logError("Cannot scroll to " + alias + " | " + locatorDetails);
+            logError("Cannot scroll to " + elementAlias + " | " + elementDetails);
             testStepFail("[" + e.getClass().getSimpleName() + "] | Message --> " + e.getMessage());
-        } finally {
-            // Reset the implicit wait time to the original value
-            driver.manage().timeouts().implicitlyWait(originalImplicitWait);
-        }
-    }
-
-    /**
-     * <b>Checks if the specified element is displayed on the screen.</b>
-     *
-     * @param element the WebElement to check for visibility.
-     * @return true if the element is displayed, false otherwise.
-     */
-    private boolean isElementInViewPort(WebElement element) {
-        try {
-            return element.isDisplayed();
-        } catch (Exception e) {
-            return false;
         }
     }
 
-    /**
-     * <b>Performs a scroll action on the screen.</b>
-     * <p>This method simulates a swipe gesture from the start coordinates to the end coordinates using a finger input.</p>
-     *
-     * @param startX the starting X coordinate for the swipe.
-     * @param startY the starting Y coordinate for the swipe.
-     * @param endY   the ending Y coordinate for the swipe.
-     * @return true if the screen content changed after the swipe, false otherwise.
-     */
-    private boolean performScroll(int startX, int startY, int endY) {
-        PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
-        Sequence swipe = new Sequence(finger, 1);
-        swipe.addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), startX, startY));
-        swipe.addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
-        swipe.addAction(finger.createPointerMove(Duration.ofMillis(600), PointerInput.Origin.viewport(), startX, endY));
-        swipe.addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
-        driver.perform(Arrays.asList(swipe));
-
-        // Verify if the screen content changed after the swipe
-        List<WebElement> elementsAfterSwipe = driver.findElements(AppiumBy.androidUIAutomator("new UiSelector().scrollable(true).instance(0)"));
-        return !elementsAfterSwipe.isEmpty();
-    }
-
 
     /**
      * <b>Scrolls to the end of the page.</b>
@@ -238,6 +210,7 @@ public class AndroidActions extends AppiumUtils {
                     "percent", 3.0
 
             ));
+            ElementCache.invalidateScreen();
         } while (spaceAvailable);
     }
 }
@@ -3,13 +3,32 @@ package common;
 import io.appium.java_client.AppiumDriver;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
+import utilities.CompiledLocator;
+import utilities.ContextManager;
+import utilities.ElementState;
+import utilities.FlutterFinder;
+import utilities.FlutterSync;
+import utilities.LocatorProfiler;
+import utilities.PageSnapshot;
+import utilities.TextEntry;
+import utilities.TimeoutManager;
+import utilities.UiIdleDetector;
+import utilities.WaitEngine;
+import utilities.WaitOutcome;
+import utilities.WebElementProxyHandler;
 
 import java.io.FileReader;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static utilities.WebElementProxyHandler.alias;
 import static utilities.WebElementProxyHandler.locatorDetails;
@@ -24,6 +43,8 @@ public class AppiumUtils extends Core {
 
     /**
      * <b>Pauses the execution for a specified timeout.</b>
+     * <p>This always sleeps for the whole timeout. Use {@link #waitForIdle(AppiumDriver, int)} where the wait only has to outlast an animation
+     * or a screen transition.</p>
      *
      * @param seconds the timeout duration in seconds.
      */
@@ -31,12 +52,56 @@ public class AppiumUtils extends Core {
         try {
             logInfo("Starting to wait for " + seconds + " seconds..");
             Thread.sleep(seconds * 1000L);
+            TimeoutManager.recordWait(seconds * 1_000_000_000L);
             logInfo("Wait: " + seconds + " seconds");
         } catch (Exception e) {
             logError("[" + e.getClass().getSimpleName() + "] | Message --> " + e.getMessage());
         }
     }
 
+    /**
+     * <b>Waits until the screen is idle, for at most the specified timeout.</b>
+     * <p>Instead of sleeping for the whole timeout, the page source is sampled until it has not changed for <code>idleQuietMillis</code>
+     * (see {@link UiIdleDetector}). The time saved compared with the full sleep is logged. Without a driver session it sleeps like
+     * {@link #hardWait(int)}.</p>
+     *
+     * @param driver  the AppiumDriver instance used to fetch the page source.
+     * @param seconds the maximum wait in seconds.
+     */
+    public static void waitForIdle(AppiumDriver driver, int seconds) {
+        if (driver == null) {
+            hardWait(seconds);
+            return;
+        }
+        try {
+            logInfo("Waiting for the screen to be idle, at most " + seconds + " seconds..");
+            UiIdleDetector.waitForIdle(driver, Duration.ofSeconds(seconds));
+        } catch (Exception e) {
+            logError("[" + e.getClass().getSimpleName() + "] | Message --> " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * <b>Waits until a Flutter app has rendered its first frame.</b>
+     *
+     * @param driver the AppiumDriver instance with the flutter context.
+     */
+    public static void waitForFlutterFirstFrame(AppiumDriver driver) {
+        FlutterSync.waitForFirstFrame(driver);
+    }
+
+    /**
+     * <b>Waits until a Flutter app has no running animations and no pending frame.</b>
+     * <p>Use it before reading values that are animated in, instead of polling for visibility. Unlike the settle step after interactions, it
+     * runs regardless of the <code>flutterFrameSync</code> config.</p>
+     *
+     * @param driver the AppiumDriver instance with the flutter context.
+     */
+    public static void waitForFlutterIdle(AppiumDriver driver) {
+        FlutterSync.waitForNoTransientCallbacks(driver);
+        FlutterSync.waitForNoPendingFrame(driver);
+    }
 
     /**
      * <b>Checks if the specified element is displayed and logs the result.</b>
@@ -49,8 +114,7 @@ public class AppiumUtils extends Core {
     public static boolean isElementDisplayed(WebElement element, AppiumDriver driver) {
         boolean flag = true;
         try {
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(elementLoadWait));
-            wait.until(ExpectedConditions.visibilityOf(element)).isDisplayed();
+            new WaitEngine(driver, element, Duration.ofSeconds(elementLoadWait)).until(ExpectedConditions.visibilityOf(element));
             testStepPass(alias + " is displayed");
         } catch (Exception e) {
             flag = false;
@@ -81,17 +145,291 @@ public class AppiumUtils extends Core {
      */
     public static WebElement findElement(WebElement element, int timeout, AppiumDriver driver) {
         WebElement ele = null;
+        WaitEngine wait = new WaitEngine(driver, element, Duration.ofSeconds(timeout));
+        long start = System.nanoTime();
         try {
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeout));
             ele = wait.until(ExpectedConditions.visibilityOf(element));
             logInfo(alias + " is visible");
         } catch (Exception e) {
             logError("Cannot find " + alias + " | " + locatorDetails);
             testStepFail("[" + e.getClass().getSimpleName() + "] | Message --> " + e.getMessage());
+        } finally {
+            profileWait(element, System.nanoTime() - start, wait.getPolls(), ele != null, driver);
         }
         return ele;
     }
 
+    /**
+     * <b>Records an element wait in the LocatorProfiler.</b>
+     * <p>With the <code>locatorSuggestions</code> config enabled, the first successful wait for an XPath locator also captures a page
+     * snapshot, so the profiler can suggest a cheaper strategy for it.</p>
+     *
+     * @param element the aliased WebElement that was waited for.
+     * @param nanos   the duration of the wait.
+     * @param polls   the number of polling attempts.
+     * @param found   true if the element was found.
+     * @param driver  the AppiumDriver instance used to interact with the element.
+     */
+    private static void profileWait(WebElement element, long nanos, int polls, boolean found, AppiumDriver driver) {
+        CompiledLocator locator = WebElementProxyHandler.locatorOf(element);
+        if (locator == null) {
+            return;
+        }
+        LocatorProfiler.recordWait(locator, nanos, polls, found);
+        if (found && locatorSuggestions && LocatorProfiler.needsSuggestion(locator)) {
+            try {
+                PageSnapshot.capture(driver);
+            } catch (Exception e) {
+                logWarning("Could not capture page snapshot for locator suggestions | " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * <b>Verifies that all the specified elements are displayed, using a single page source fetch.</b>
+     * <p>This method evaluates the xpath, accessibility id, id and className locators of the elements against one page snapshot and reports
+     * all of them in one test step. Elements that are missing from the snapshot, or whose locators cannot be evaluated locally, are looked up
+     * live with {@link #findElement(WebElement, int, AppiumDriver)}. Use it for read-only verification steps.</p>
+     *
+     * @param driver   the AppiumDriver instance used to fetch the page source.
+     * @param timeout  the timeout in seconds for the live lookup of elements missing from the snapshot.
+     * @param elements the aliased WebElements to verify.
+     * @return the result for each element, in the order they were passed.
+     */
+    public static Map<WebElement, Boolean> verifyElementsDisplayed(AppiumDriver driver, int timeout, WebElement... elements) {
+        Boolean[] displayed = new Boolean[elements.length];
+        List<String> foundAliases = new ArrayList<>();
+        PageSnapshot snapshot = null;
+        try {
+            snapshot = PageSnapshot.capture(driver);
+        } catch (Exception e) {
+            logWarning("Page snapshot not available, looking up elements live | [" + e.getClass().getSimpleName() + "] " + e.getMessage());
+        }
+
+        for (int i = 0; i < elements.length; i++) {
+            CompiledLocator locator = WebElementProxyHandler.locatorOf(elements[i]);
+            if (snapshot != null && locator != null && snapshot.isDisplayed(locator)) {
+                displayed[i] = true;
+                foundAliases.add("'" + locator.alias() + "'");
+            }
+        }
+        if (!foundAliases.isEmpty()) {
+            testStepPass(String.join(", ", foundAliases) + " displayed");
+        }
+
+        // Fall back to live lookups only for the misses
+        Map<WebElement, Boolean> results = new LinkedHashMap<>();
+        for (int i = 0; i < elements.length; i++) {
+            if (displayed[i] == null) {
+                displayed[i] = findElement(elements[i], timeout, driver) != null;
+            }
+            results.put(elements[i], displayed[i]);
+        }
+        return results;
+    }
+
+    /**
+     * <b>Waits until all the specified elements are displayed, checking them in one polling loop.</b>
+     * <p>Elements that were seen displayed are not checked again in later polls.</p>
+     *
+     * @param driver   the AppiumDriver instance used to interact with the elements.
+     * @param timeout  the timeout in seconds.
+     * @param elements the aliased WebElements to wait for.
+     * @return the outcome, listing the displayed elements and the time taken.
+     */
+    public static WaitOutcome waitForAll(AppiumDriver driver, int timeout, WebElement... elements) {
+        return waitForElements(driver, timeout, "all-of", elements);
+    }
+
+    /**
+     * <b>Waits until any of the specified elements is displayed, checking them in one polling loop.</b>
+     * <p>The outcome lists every element that was displayed in the poll that fired the condition.</p>
+     *
+     * @param driver   the AppiumDriver instance used to interact with the elements.
+     * @param timeout  the timeout in seconds.
+     * @param elements the aliased WebElements to wait for.
+     * @return the outcome, listing the displayed elements and the time taken.
+     */
+    public static WaitOutcome waitForAny(AppiumDriver driver, int timeout, WebElement... elements) {
+        return waitForElements(driver, timeout, "any-of", elements);
+    }
+
+    /**
+     * <b>Waits until one of the specified elements is displayed and returns only that one.</b>
+     * <p>Each poll stops at the first displayed element, so elements earlier in the list win when several are displayed. Use it for
+     * optional screens, e.g. a dialog that may appear before the expected screen.</p>
+     *
+     * @param driver   the AppiumDriver instance used to interact with the elements.
+     * @param timeout  the timeout in seconds.
+     * @param elements the aliased WebElements to wait for, by priority.
+     * @return the outcome, with the displayed element and the time taken.
+     */
+    public static WaitOutcome waitForFirst(AppiumDriver driver, int timeout, WebElement... elements) {
+        return waitForElements(driver, timeout, "first-of", elements);
+    }
+
+    /**
+     * <b>Runs a composite wait on several elements in one polling loop.</b>
+     *
+     * @param driver    the AppiumDriver instance used to interact with the elements.
+     * @param timeout   the timeout in seconds.
+     * @param condition all-of, any-of or first-of.
+     * @param elements  the aliased WebElements to wait for.
+     * @return the outcome of the wait.
+     */
+    private static WaitOutcome waitForElements(AppiumDriver driver, int timeout, String condition, WebElement... elements) {
+        List<String> aliases = new ArrayList<>();
+        for (WebElement element : elements) {
+            CompiledLocator locator = WebElementProxyHandler.locatorOf(element);
+            aliases.add(locator == null ? element.toString() : "'" + locator.alias() + "'");
+        }
+        String description = condition + " [" + String.join(", ", aliases) + "]";
+        boolean[] displayed = new boolean[elements.length];
+        long start = System.nanoTime();
+        boolean satisfied;
+        try {
+            satisfied = new WaitEngine(driver, description, Duration.ofSeconds(timeout)).until(d -> {
+                boolean any = false;
+                boolean all = true;
+                for (int i = 0; i < elements.length; i++) {
+                    if (!displayed[i] || !"all-of".equals(condition)) {
+                        displayed[i] = isDisplayedNow(elements[i]);
+                    }
+                    any |= displayed[i];
+                    all &= displayed[i];
+                    if (displayed[i] && "first-of".equals(condition)) {
+                        break;
+                    }
+                }
+                return "all-of".equals(condition) ? all : any;
+            });
+        } catch (Exception e) {
+            satisfied = false;
+        }
+
+        List<WebElement> fired = new ArrayList<>();
+        List<String> firedAliases = new ArrayList<>();
+        for (int i = 0; i < elements.length; i++) {
+            if (displayed[i]) {
+                fired.add(elements[i]);
+                firedAliases.add(aliases.get(i));
+            }
+        }
+        WaitOutcome outcome = new WaitOutcome(description, satisfied, fired, firedAliases, (System.nanoTime() - start) / 1_000_000);
+        if (satisfied) {
+            logInfo(outcome.toString());
+        } else {
+            logWarning(outcome.toString());
+        }
+        return outcome;
+    }
+
+    /**
+     * <b>Checks once, without waiting, if an element is displayed.</b>
+     *
+     * @param element the WebElement to check.
+     * @return true if the element is present and displayed.
+     */
+    private static boolean isDisplayedNow(WebElement element) {
+        try {
+            return element.isDisplayed();
+        } catch (NotFoundException | StaleElementReferenceException e) {
+            return false;
+        }
+    }
+
+    /**
+     * <b>Asserts that none of the specified elements is displayed, without waiting for them.</b>
+     * <p>With several elements and locators that can be evaluated locally, one page snapshot is checked. Otherwise every strategy of an element
+     * is looked up once with <code>findElements</code>; the server-side implicit wait is zero (see TimeoutManager), so an absent element
+     * returns within milliseconds.</p>
+     *
+     * @param driver   the AppiumDriver instance used to interact with the elements.
+     * @param elements the aliased WebElements that must not be displayed.
+     * @return true if all the elements are absent.
+     */
+    public static boolean assertAbsent(AppiumDriver driver, WebElement... elements) {
+        PageSnapshot snapshot = null;
+        if (elements.length > 1) {
+            try {
+                snapshot = PageSnapshot.capture(driver);
+            } catch (Exception e) {
+                logWarning("Page snapshot not available, checking absence live | [" + e.getClass().getSimpleName() + "] " + e.getMessage());
+            }
+        }
+        List<String> absentAliases = new ArrayList<>();
+        boolean allAbsent = true;
+        for (WebElement element : elements) {
+            CompiledLocator locator = WebElementProxyHandler.locatorOf(element);
+            String elementAlias = locator == null ? element.toString() : "'" + locator.alias() + "'";
+            boolean absent = snapshot != null && locator != null && PageSnapshot.supports(locator) && !locator.isFlutter()
+                    ? !snapshot.isDisplayed(locator)
+                    : isAbsentNow(element, driver);
+            if (absent) {
+                absentAliases.add(elementAlias);
+            } else {
+                allAbsent = false;
+                testStepFail(elementAlias + " is displayed but should be absent" + (locator == null ? "" : " | " + locator.description()));
+            }
+        }
+        if (!absentAliases.isEmpty()) {
+            testStepPass(String.join(", ", absentAliases) + " not displayed");
+        }
+        return allAbsent;
+    }
+
+    /**
+     * <b>Waits until the specified element is no longer displayed, e.g. a loading spinner.</b>
+     * <p>Returns at the first check when the element is already gone.</p>
+     *
+     * @param element the aliased WebElement to wait for.
+     * @param timeout the timeout duration in seconds.
+     * @param driver  the AppiumDriver instance used to interact with the element.
+     * @return true if the element is gone before the timeout.
+     */
+    public static boolean waitUntilGone(WebElement element, int timeout, AppiumDriver driver) {
+        CompiledLocator locator = WebElementProxyHandler.locatorOf(element);
+        String elementAlias = locator == null ? element.toString() : "'" + locator.alias() + "'";
+        long start = System.nanoTime();
+        try {
+            new WaitEngine(driver, "gone: " + elementAlias, Duration.ofSeconds(timeout)).until(d -> isAbsentNow(element, driver));
+            logInfo(elementAlias + " is gone after " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return true;
+        } catch (Exception e) {
+            testStepFail(elementAlias + " is still displayed | [" + e.getClass().getSimpleName() + "] | Message --> " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * <b>Checks once, without waiting, if an element is absent.</b>
+     *
+     * @param element the WebElement to check.
+     * @param driver  the AppiumDriver instance used to interact with the element.
+     * @return true if no strategy of the element finds a displayed element.
+     */
+    private static boolean isAbsentNow(WebElement element, AppiumDriver driver) {
+        CompiledLocator locator = WebElementProxyHandler.locatorOf(element);
+        if (locator == null) {
+            return !isDisplayedNow(element);
+        }
+        for (CompiledLocator candidate : locator.candidates()) {
+            if (candidate.isFlutter()) {
+                if (!FlutterFinder.isAbsent(driver, candidate.value())) {
+                    return false;
+                }
+                continue;
+            }
+            ContextManager.ensure(driver, ContextManager.NATIVE_APP);
+            for (WebElement found : driver.findElements(candidate.by())) {
+                if (isDisplayedNow(found)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     /**
      * <b>Retrieves the content description attribute of the specified element.</b>
      * <p>This method fetches the 'content-desc' attribute of the provided element, logs the operation, and returns the value.</p>
@@ -101,7 +439,7 @@ public class AppiumUtils extends Core {
      * @return the content description attribute of the specified element.
      */
     public static String getAttribute(WebElement element, AppiumDriver driver) {
-        String text = findElement(element, driver).getAttribute("content-desc");
+        String text = ElementState.live(findElement(element, driver)).getContentDesc();
         logInfo("Retrieved attribute (content-desc: '" + text + "') for element: " + alias);
         return text;
     }
@@ -116,7 +454,7 @@ public class AppiumUtils extends Core {
      * @return the value of the specified attribute of the specified element.
      */
     public static String getAttribute(WebElement element, String attribute, AppiumDriver driver) {
-        String text = findElement(element, driver).getAttribute(attribute);
+        String text = ElementState.live(findElement(element, driver)).getAttribute(attribute);
         logInfo("Retrieved attribute (" + attribute + ": '" + text + "') for element: " + alias);
         return text;
     }
@@ -131,7 +469,7 @@ public class AppiumUtils extends Core {
      * @return the text content of the specified element.
      */
     public static String getText(WebElement element, AppiumDriver driver) {
-        String text = findElement(element, driver).getText();
+        String text = ElementState.live(findElement(element, driver)).getText();
         logInfo("Retrieved text: '" + text + "' for element: " + alias);
         return text;
     }
@@ -148,16 +486,19 @@ public class AppiumUtils extends Core {
         String actualText = null;
         boolean success = true;
 
+        // Both reads share one lookup of the element
+        ElementState state = ElementState.live(findElement(element, driver));
         try {
-            actualText = getText(element, driver);
+            actualText = state.getText();
+            logInfo("Retrieved text: '" + actualText + "' for element: " + alias);
             if (actualText.isEmpty()) {
                 logWarning("getText() returned empty, attempting to use getAttribute()");
-                actualText = getAttribute(element, driver);
+                actualText = state.getContentDesc();
             }
         } catch (Exception e1) {
             logWarning("[" + e1.getClass().getSimpleName() + "] | Message --> " + e1.getMessage());
             try {
-                actualText = getAttribute(element, driver);
+                actualText = state.getContentDesc();
             } catch (Exception e2) {
                 logError("Both getText() and getAttribute() failed for " + alias + " | " + locatorDetails);
                 testStepFail("[" + e2.getClass().getSimpleName() + "] | Message --> " + e2.getMessage());
@@ -196,16 +537,87 @@ public class AppiumUtils extends Core {
 
     /**
      * <b>Writes a value into the specified element.</b>
+     * <p>The value is set in one request where the element allows it, see {@link TextEntry}.</p>
      *
      * @param element the WebElement to write into.
      * @param value   the value to write.
      * @param driver  the AppiumDriver instance to use for the action.
      */
     public static void write(WebElement element, String value, AppiumDriver driver) {
-        findElement(element, smallWait, driver).sendKeys(value);
+        TextEntry.enter(driver, findElement(element, smallWait, driver), value);
         testStepPass("Entered '" + value + "' in " + alias);
     }
 
+    /**
+     * <b>Fills several fields and verifies their values with one page source fetch.</b>
+     * <p>Each field is looked up and filled with {@link TextEntry}, without a test step per field. The values are then read back from a
+     * single page snapshot; fields the snapshot cannot answer are read live. Password fields are filled but not read back, as their text is
+     * masked. One test step reports the whole form.</p>
+     *
+     * @param driver the AppiumDriver instance used to interact with the fields.
+     * @param values the aliased WebElements and the values to enter, filled in iteration order.
+     * @return true if every field was filled and shows its value.
+     */
+    public static boolean fillForm(AppiumDriver driver, Map<WebElement, String> values) {
+        // Track the fields by index: the caller's map is only iterated, never looked up
+        List<WebElement> fields = new ArrayList<>(values.keySet());
+        List<String> texts = new ArrayList<>(values.values());
+        List<String> aliases = new ArrayList<>();
+        List<Integer> filled = new ArrayList<>();
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            aliases.add(aliasOf(fields.get(i)));
+            WebElement element = findElement(fields.get(i), smallWait, driver);
+            if (element == null) {
+                failures.add(aliases.get(i) + " not found");
+                continue;
+            }
+            try {
+                TextEntry.enter(driver, element, texts.get(i));
+                filled.add(i);
+            } catch (Exception e) {
+                failures.add(aliases.get(i) + " not filled [" + e.getClass().getSimpleName() + "]");
+            }
+        }
+
+        PageSnapshot snapshot = null;
+        try {
+            snapshot = PageSnapshot.capture(driver);
+        } catch (Exception e) {
+            logWarning("Page snapshot not available, reading fields live | [" + e.getClass().getSimpleName() + "] " + e.getMessage());
+        }
+        for (int i : filled) {
+            try {
+                ElementState state = snapshot == null ? ElementState.live(fields.get(i)) : ElementState.capture(fields.get(i), snapshot);
+                if (!isSecureField(state) && !texts.get(i).equals(state.getText())) {
+                    failures.add(aliases.get(i) + " shows '" + state.getText() + "'");
+                }
+            } catch (Exception e) {
+                failures.add(aliases.get(i) + " not readable [" + e.getClass().getSimpleName() + "]");
+            }
+        }
+
+        if (failures.isEmpty()) {
+            testStepPass("Filled " + String.join(", ", aliases));
+            return true;
+        }
+        testStepFail("Form not filled as expected: " + String.join("; ", failures));
+        return false;
+    }
+
+    private static boolean isSecureField(ElementState state) {
+        try {
+            return "true".equals(state.getAttribute("password")) || "XCUIElementTypeSecureTextField".equals(state.getAttribute("type"));
+        } catch (WebDriverException e) {
+            return false; // the platform does not know one of the attributes
+        }
+    }
+
+    private static String aliasOf(WebElement element) {
+        CompiledLocator locator = WebElementProxyHandler.locatorOf(element);
+        return locator == null ? "element" : "'" + locator.alias() + "'";
+    }
+
     /**
      * <b>Taps on the specified element.</b>
      *
@@ -214,6 +626,7 @@ public class AppiumUtils extends Core {
      */
     public static void tap(WebElement element, AppiumDriver driver) {
         findElement(element, driver).click();
+        FlutterSync.settle(driver);
         testStepPass("Tapped on " + alias);
     }
 
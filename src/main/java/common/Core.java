@@ -11,6 +11,11 @@ import org.testng.Assert;
 import org.testng.asserts.SoftAssert;
 import utilities.LoggerManager;
 import utilities.Redact;
+import utilities.ReportStream;
+import utilities.ScreenshotEncoder;
+import utilities.ScreenshotPolicy;
+import utilities.TextEntry;
+import utilities.TimeoutManager;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -46,6 +51,28 @@ public class Core {
     public static int activityLoadWait;
     public static int stepFailCounter;
     public static int stepWarnCounter;
+    public static boolean elementCache;
+    public static String elementProxyBackend;
+    public static boolean locatorSuggestions;
+    public static long waitMinPollMillis = 50;
+    public static long waitMaxPollMillis = 500;
+    public static double waitBackoffFactor = 1.5;
+    public static int stepTimeBudget;
+    public static long idleQuietMillis = 700;
+    public static boolean flutterFrameSync;
+    public static int scrollMaxSwipes = 20;
+    public static boolean fastTextEntry;
+    public static int screenshotThreads = 2;
+    public static int screenshotQueueSize = 16;
+    public static String screenshotPolicy = "ALWAYS";
+    public static int screenshotEveryNth = 5;
+    public static int screenshotDedupeDistance = -1;
+    public static int screenshotJpegQuality = 70;
+    public static int thumbnailSize = 250;
+    public static boolean screenshotStore;
+    public static boolean reportStreaming;
+    public static int reportFlushEvery = 10;
+    public static int testTimeBudget;
     public static final int MAX_FAILS = 4; // Maximum allowed failures, starts at 0
     public static final int MAX_WARNS = 19; // Maximum allowed warnings, starts at 0
 
@@ -162,9 +189,28 @@ public class Core {
      *   <li><b>virtualDeviceName:</b> Name of the virtual device (emulator).</li>
      *   <li><b>appiumServerPath:</b> Path to the Appium server executable.</li>
      *   <li><b>smallWait:</b> Small wait time for locating elements</li>
-     *   <li><b>implicitWait:</b> Implicit wait time for locating elements.</li>
+     *   <li><b>implicitWait:</b> Implicit wait time for locating elements, applied on the client by the TimeoutManager.</li>
      *   <li><b>elementLoadWait:</b> Wait time for elements to load.</li>
      *   <li><b>activityLoadWait:</b> Wait time for activities/pages to load.</li>
+     *   <li><b>elementCache:</b> Reuse resolved elements between proxy calls (optional, default false).</li>
+     *   <li><b>elementProxyBackend:</b> Implementation of the aliased elements, reflect or direct (optional, default reflect).</li>
+     *   <li><b>locatorSuggestions:</b> Capture a page snapshot to suggest cheaper strategies for XPath locators (optional, default false).</li>
+     *   <li><b>waitMinPollMillis / waitMaxPollMillis:</b> Shortest and longest polling interval of element waits (optional, default 50 / 500).</li>
+     *   <li><b>waitBackoffFactor:</b> Growth of the polling interval once an element is later than expected (optional, default 1.5).</li>
+     *   <li><b>idleQuietMillis:</b> How long the screen must stay unchanged to be considered idle by waitForIdle (optional, default 700).</li>
+     *   <li><b>flutterFrameSync:</b> Wait for the Flutter engine to settle after taps, swipes and scrolls (optional, default false).</li>
+     *   <li><b>scrollMaxSwipes:</b> Maximum number of scrolls when searching a list for an element (optional, default 20).</li>
+     *   <li><b>fastTextEntry:</b> Set the text of fields in one request instead of typing it key by key; this replaces the text of the field where typing appends to it (optional, default false).</li>
+     *   <li><b>screenshotThreads / screenshotQueueSize:</b> Background writers of report screenshots and how many screenshots may wait for them (optional, default 2 / 16).</li>
+     *   <li><b>screenshotPolicy:</b> Which passed and warned steps get a screenshot: ALWAYS, ON_FAILURE, EVERY_NTH or ON_CHANGE (optional, default ALWAYS).</li>
+     *   <li><b>screenshotEveryNth:</b> Step interval of the EVERY_NTH screenshot policy (optional, default 5).</li>
+     *   <li><b>screenshotDedupeDistance:</b> Perceptual-hash bits two step screenshots may differ in and still count as the same screen, -1 to disable (optional, default -1).</li>
+     *   <li><b>screenshotJpegQuality:</b> JPEG quality of report screenshots and thumbnails, 1 to 100 (optional, default 70).</li>
+     *   <li><b>thumbnailSize:</b> Longer side in pixels of the thumbnails shown in the report (optional, default 250).</li>
+     *   <li><b>screenshotStore:</b> Keep screenshots once per content in testReports/store, shared across tests and runs (optional, default false).</li>
+     *   <li><b>reportStreaming:</b> Append report events to events.jsonl and write the HTML report in parts (optional, default false).</li>
+     *   <li><b>reportFlushEvery:</b> Number of tests per part of a streamed report (optional, default 10).</li>
+     *   <li><b>stepTimeBudget / testTimeBudget:</b> Maximum seconds a step or a test may spend before its waits fail early (optional, default 0 = no budget).</li>
      * </ul>
      */
     private static void readConfigurationFile() {
@@ -180,6 +226,28 @@ public class Core {
         implicitWait = Integer.parseInt(getConfig("implicitWaitTime"));
         elementLoadWait = Integer.parseInt(getConfig("elementLoadWaitTime"));
         activityLoadWait = Integer.parseInt(getConfig("activityLoadWaitTime"));
+        elementCache = Boolean.parseBoolean(getConfig("elementCache", "false"));
+        elementProxyBackend = getConfig("elementProxyBackend", "reflect");
+        locatorSuggestions = Boolean.parseBoolean(getConfig("locatorSuggestions", "false"));
+        waitMinPollMillis = Long.parseLong(getConfig("waitMinPollMillis", "50"));
+        waitMaxPollMillis = Long.parseLong(getConfig("waitMaxPollMillis", "500"));
+        waitBackoffFactor = Double.parseDouble(getConfig("waitBackoffFactor", "1.5"));
+        idleQuietMillis = Long.parseLong(getConfig("idleQuietMillis", "700"));
+        flutterFrameSync = Boolean.parseBoolean(getConfig("flutterFrameSync", "false"));
+        scrollMaxSwipes = Integer.parseInt(getConfig("scrollMaxSwipes", "20"));
+        fastTextEntry = Boolean.parseBoolean(getConfig("fastTextEntry", "false"));
+        screenshotThreads = Integer.parseInt(getConfig("screenshotThreads", "2"));
+        screenshotQueueSize = Integer.parseInt(getConfig("screenshotQueueSize", "16"));
+        screenshotPolicy = getConfig("screenshotPolicy", "ALWAYS");
+        screenshotEveryNth = Integer.parseInt(getConfig("screenshotEveryNth", "5"));
+        screenshotDedupeDistance = Integer.parseInt(getConfig("screenshotDedupeDistance", "-1"));
+        screenshotJpegQuality = Integer.parseInt(getConfig("screenshotJpegQuality", "70"));
+        thumbnailSize = Integer.parseInt(getConfig("thumbnailSize", "250"));
+        screenshotStore = Boolean.parseBoolean(getConfig("screenshotStore", "false"));
+        reportStreaming = Boolean.parseBoolean(getConfig("reportStreaming", "false"));
+        reportFlushEvery = Integer.parseInt(getConfig("reportFlushEvery", "10"));
+        stepTimeBudget = Integer.parseInt(getConfig("stepTimeBudgetSeconds", "0"));
+        testTimeBudget = Integer.parseInt(getConfig("testTimeBudgetSeconds", "0"));
     }
 
     /**
@@ -201,6 +269,18 @@ public class Core {
         return propertyValue;
     }
 
+    /**
+     * <b>Reads an optional property value from the configuration file.</b>
+     *
+     * @param key          the property key to read.
+     * @param defaultValue the value to use when the key is not present.
+     * @return the property value, or the default value when the key is missing.
+     */
+    private static String getConfig(String key, String defaultValue) {
+        String propertyValue = getConfig(key);
+        return propertyValue == null ? defaultValue : propertyValue;
+    }
+
     /**
      * <b>Clears Chrome data such as cache, cookies, and storage data.</b>
      */
@@ -244,6 +324,17 @@ public class Core {
         LoggerManager.logger.error(message);
     }
 
+    /**
+     * <b>Logs a step to the test report and to the report event stream.</b>
+     *
+     * @param status the status of the step.
+     * @param html   the HTML of the step.
+     */
+    public static void logToReport(Status status, String html) {
+        extentTest.log(status, html);
+        ReportStream.step(status, html);
+    }
+
     /**
      * <b>Logs an info message to the log file and also to the test report.</b>
      *
@@ -251,32 +342,36 @@ public class Core {
      */
     public static void testStepInfo(String message) {
         logInfo(message);
-        extentTest.info(MarkupHelper.createLabel(message, ExtentColor.BLUE));
+        logToReport(Status.INFO, MarkupHelper.createLabel(message, ExtentColor.BLUE).getMarkup());
     }
 
     /**
      * <b>Logs a pass message to the log file and also to the test report with a screenshot.</b>
+     * <p>Whether the step gets a new, a reused or no screenshot depends on the {@link ScreenshotPolicy}.</p>
      *
      * @param message the message to log.
      */
     public static void testStepPass(String message) {
         logInfo(message);
-        String screenshotPath = getScreenshot(testCaseName, "pass", driver);
+        String screenshotPath = ScreenshotPolicy.forStep(testCaseName, "pass", driver);
         String combinedHtml = get25pxHtml(screenshotPath, message, "", ""); // default: black, regular
-        extentTest.log(Status.PASS, combinedHtml);
+        logToReport(Status.PASS, combinedHtml);
+        TimeoutManager.startStep();
     }
 
 
     /**
      * <b>Logs a warning message to the log file and also to the test report with a screenshot.</b>
+     * <p>Whether the step gets a new, a reused or no screenshot depends on the {@link ScreenshotPolicy}.</p>
      *
      * @param message the message to log.
      */
     public static void testStepWarn(String message) {
         logWarning(message);
-        String screenshotPath = getScreenshot(testCaseName, "fail", driver);
+        String screenshotPath = ScreenshotPolicy.forStep(testCaseName, "fail", driver);
         String combinedHtml = get25pxHtml(screenshotPath, message, "#ffc107", "bold"); // orange
-        extentTest.log(Status.WARNING, combinedHtml);
+        logToReport(Status.WARNING, combinedHtml);
+        TimeoutManager.startStep();
         checkWarnLimit(); //fail counter
     }
 
@@ -293,7 +388,8 @@ public class Core {
 
             String screenshotPath = getScreenshot(testCaseName, "fail", driver);
             String combinedHtml = getFailureHtml(screenshotPath, message);
-            extentTest.log(Status.FAIL, combinedHtml);
+            logToReport(Status.FAIL, combinedHtml);
+            TimeoutManager.startStep();
 
             checkFailureLimit(); // Fail counter
             softAssert.fail();
@@ -336,7 +432,7 @@ public class Core {
     /**
      * <b>Generates HTML for a failure message with a 250px thumbnail image aligned to the right.</b>
      * <p>This method creates a combined HTML string that includes a failure message styled in red and bold, alongside a thumbnail image aligned to the right.
-     * The thumbnail links to the full-size screenshot.</p>
+     * The thumbnail is the downscaled copy written next to the screenshot and links to the full-size screenshot.</p>
      *
      * @param screenshotPath the path to the screenshot image.
      * @param message        the failure message to display.
@@ -344,9 +440,9 @@ public class Core {
      */
     public static String getFailureHtml(String screenshotPath, String message) {
         String combinedHtml;
-        String thumbnailHtml = "<div style='float: right;'>" +
+        String thumbnailHtml = screenshotPath == null || screenshotPath.isEmpty() ? "" : "<div style='float: right;'>" +
                 "<a href='" + screenshotPath + "' target='_blank'>" +
-                "<img src='" + screenshotPath + "' style='max-width: 250px; " +
+                "<img src='" + ScreenshotEncoder.thumbnailOf(screenshotPath) + "' style='max-width: 250px; " +
                 "max-height: 250px; vertical-align: middle; border: none; padding: 0;' /></a>" +
                 "</div>";
         String messageHtml = "<div style='display: inline-block; vertical-align: middle; color: #e57373; font-weight: bold;'>" + message + "</div>"; // red
@@ -357,20 +453,19 @@ public class Core {
     /**
      * <b>Generates HTML for a message with a 25px thumbnail image aligned to the right.</b>
      * <p>This method creates a combined HTML string that includes a message styled with a specified color and text style, alongside a thumbnail image aligned to the right.
-     * The thumbnail links to the full-size screenshot.</p>
+     * The thumbnail links to the full-size screenshot. Without a screenshot only the message is shown.</p>
      *
-     * @param screenshotPath the path to the screenshot image.
+     * @param screenshotPath the path to the screenshot image, empty if the step has none.
      * @param message        the message to display.
      * @param hexCode        the color hex code for the message text.
      * @param textStyle      the style for the message text (e.g., "bold", "normal").
      * @return the combined HTML string.
      */
     public static String get25pxHtml(String screenshotPath, String message, String hexCode, String textStyle) {
-        String customThumbnail = userDirPath + "\\src\\main\\resources\\thumbnails\\thumbnail_dummy.png";
         String combinedHtml;
-        String thumbnailHtml = "<div style='float: right;'>" +
+        String thumbnailHtml = screenshotPath == null || screenshotPath.isEmpty() ? "" : "<div style='float: right;'>" +
                 "<a href='" + screenshotPath + "' target='_blank'>" +
-                "<img src='" + customThumbnail + "' style='width: 25px; " +
+                "<img src='" + ScreenshotEncoder.thumbnailOf(screenshotPath) + "' style='width: 25px; " +
                 "height: 25px; vertical-align: middle; border: none; padding: 0;' /></a>" +
                 "</div>";
         String messageHtml = "<div style='display: inline-block; vertical-align: middle; color: " + hexCode + "; font-weight: " + textStyle + ";'>" + message + "</div>";
@@ -380,7 +475,7 @@ public class Core {
 
     /**
      * <b>Writes the password into the specified web element.</b>
-     * <p>This method decrypts the encrypted password, enters it into the specified web element,
+     * <p>This method decrypts the encrypted password, enters it into the specified web element with {@link TextEntry},
      * and logs the action with the password masked as *****.</p>
      *
      * @param element the WebElement where the password will be entered.
@@ -389,7 +484,7 @@ public class Core {
      */
     public static void writePassword(WebElement element, String value, AppiumDriver driver) {
         String password = Redact.decode(value);
-        findElement(element, smallWait, driver).sendKeys(password);
+        TextEntry.enter(driver, findElement(element, smallWait, driver), password);
         testStepPass("Entered ***** in " + alias);
     }
 }
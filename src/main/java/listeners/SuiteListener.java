@@ -3,6 +3,14 @@ package listeners;
 import common.AppiumUtils;
 import org.testng.ISuite;
 import org.testng.ISuiteListener;
+import utilities.ElementCache;
+import utilities.GestureBatch;
+import utilities.LocatorProfiler;
+import utilities.StrategyRanking;
+import utilities.UiIdleDetector;
+import utilities.WaitEngine;
+
+import static utilities.ExtentReporterNG.reportDirPath;
 
 /**
  * <b>This class implements a listener for TestNG suites to perform actions at the start and end of a suite.</b>
@@ -26,11 +34,17 @@ public class SuiteListener extends AppiumUtils implements ISuiteListener {
 
     /**
      * <b>Called when a TestNG suite finishes.</b>
-     * <p>This method logs the end of the suite and stops the Appium server.</p>
+     * <p>This method logs the end of the suite, the element cache, wait engine and idle detection statistics, writes the locator profile next to the report, saves the learned locator ranking and stops the Appium server.</p>
      * @param suite the TestNG suite that has finished.
      */
     @Override
     public void onFinish(ISuite suite) {
+        ElementCache.logStatistics();
+        WaitEngine.logStatistics();
+        UiIdleDetector.logStatistics();
+        GestureBatch.logStatistics();
+        LocatorProfiler.writeReport(reportDirPath);
+        StrategyRanking.save();
         logInfo("======================= End of " + suiteName + " =======================");
         stopServer();
     }
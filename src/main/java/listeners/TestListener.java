@@ -8,6 +8,14 @@ import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 import utilities.ExtentReporterNG;
+import utilities.ReportStream;
+import utilities.ScreenshotPipeline;
+import utilities.ScreenshotPolicy;
+import utilities.ScreenshotStore;
+import utilities.TimeoutManager;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
 
 /**
  * <b>This class implements a listener for TestNG tests to perform actions at the start and end of tests.</b>
@@ -20,6 +28,7 @@ public class TestListener extends ExtentReporterNG implements ITestListener {
     public static ExtentReports extentReports = getReporterObject();
     public static String testCaseName = "";
     private static final int SUCCESS_PERCENTAGE = 80;
+    private static boolean reportPartFull;
 
     /**
      * <b>Called when a test starts.</b>
@@ -31,17 +40,46 @@ public class TestListener extends ExtentReporterNG implements ITestListener {
     public void onTestStart(ITestResult result) {
         testCaseName = result.getMethod().getMethodName();
         String[] groups = result.getMethod().getGroups();
+        if (reportPartFull) {
+            extentReports = nextReportPart();
+            reportPartFull = false;
+        }
         extentTest = extentReports.createTest(testCaseName).assignAuthor(loggedInUsername).assignDevice(virtualDeviceName);
 
         for (String group : groups) {
             extentTest.assignCategory(group);
         }
+        ReportStream.testStarted(testCaseName, loggedInUsername, virtualDeviceName, groups);
 
         logInfo("START OF TESTCASE '" + testCaseName + "'");
         logInfo("Running on device: " + virtualDeviceName);
         // Reset the counter at the start of each test
         stepFailCounter = 0;
         stepWarnCounter = 0;
+        TimeoutManager.startTest();
+        ScreenshotPolicy.reset();
+    }
+
+    /**
+     * <b>Logs the time the finished test spent waiting compared with acting.</b>
+     */
+    private void logWaitTime() {
+        String summary = TimeoutManager.summary();
+        logInfo("Testcase '" + testCaseName + "' timing | " + summary);
+        logToReport(Status.INFO, summary);
+    }
+
+    /**
+     * <b>Ends the test in the report event stream and flushes the report part when it is full.</b>
+     * <p>The next part is only started by the next test, so no empty part is written when the suite ends with a full one.</p>
+     *
+     * @param status the final status of the test.
+     */
+    private void finishTest(Status status) {
+        if (ReportStream.testFinished(status)) {
+            extentReports.flush();
+            reportPartFull = true;
+        }
     }
 
     /**
@@ -53,7 +91,9 @@ public class TestListener extends ExtentReporterNG implements ITestListener {
     @Override
     public void onTestSuccess(ITestResult result) {
         String styledMessage = "<span style='color: green; font-weight: bold;'>TEST PASSED</span>";
-        extentTest.log(Status.PASS, styledMessage);
+        logToReport(Status.PASS, styledMessage);
+        logWaitTime();
+        finishTest(Status.PASS);
     }
 
     /**
@@ -66,6 +106,7 @@ public class TestListener extends ExtentReporterNG implements ITestListener {
     public void onTestFailure(ITestResult result) {
         String message = "TEST FAILED";
         extentTest.fail(result.getThrowable());
+        ReportStream.step(Status.FAIL, stackTraceHtml(result.getThrowable()));
         try {
             // TestClass - return me the class<> mentioned in xml for the running test
             // getRealClass - return me the java class name mentioned in xml for the running test
@@ -79,10 +120,27 @@ public class TestListener extends ExtentReporterNG implements ITestListener {
 
             // extentTest.fail("Screenshot", MediaEntityBuilder.createScreenCaptureFromPath(screenshotPath).build()); // bigger image
             logError("Testcase '" + testCaseName + "' failed");
-            extentTest.log(Status.FAIL, combinedHtml);
+            logToReport(Status.FAIL, combinedHtml);
+            logWaitTime();
         } catch (Exception e) {
             logError("[" + e.getClass().getSimpleName() + "] | Message --> " + e.getMessage());
         }
+        finishTest(Status.FAIL);
+    }
+
+    /**
+     * <b>Formats the failure cause for the report event stream, as the report shows it.</b>
+     *
+     * @param throwable the failure cause, may be null.
+     * @return the escaped stack trace in a pre block.
+     */
+    private static String stackTraceHtml(Throwable throwable) {
+        if (throwable == null) {
+            return "";
+        }
+        StringWriter stackTrace = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(stackTrace));
+        return "<pre>" + stackTrace.toString().replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;") + "</pre>";
     }
 
     /**
@@ -94,8 +152,10 @@ public class TestListener extends ExtentReporterNG implements ITestListener {
     @Override
     public void onTestSkipped(ITestResult result) {
         String styledMessage = "<span style='color: yellow; font-weight: bold;'>TEST SKIPPED</span>";
-        extentTest.log(Status.SKIP, styledMessage);
+        logToReport(Status.SKIP, styledMessage);
         logInfo("Testcase '" + testCaseName + "' got skipped");
+        logWaitTime();
+        finishTest(Status.SKIP);
     }
 
     /**
@@ -120,12 +180,17 @@ public class TestListener extends ExtentReporterNG implements ITestListener {
 
     /**
      * <b>Called after all the test methods in the current test context have run.</b>
-     * <p>This method flushes the ExtentReports to ensure all logs and results are written to the report.</p>
+     * <p>This method waits for pending screenshots to be written, flushes the ExtentReports to ensure all logs and results are written to the report
+     * and closes the report event stream.</p>
      *
      * @param context the ITestContext instance containing information about the current test context.
      */
     @Override
     public void onFinish(ITestContext context) {
+        ScreenshotPipeline.drain();
+        ScreenshotPolicy.logStatistics();
+        ScreenshotStore.logStatistics();
         extentReports.flush();
+        ReportStream.close();
     }
 }
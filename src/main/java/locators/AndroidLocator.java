@@ -4,12 +4,11 @@ import annotations.AndroidFindByWithAlias;
 import common.AppiumUtils;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
-import io.appium.java_client.pagefactory.AppiumFieldDecorator;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.PageFactory;
 
 /**
  * <b>Class containing web elements (locators) with custom annotations (alias)</b>
+ * <p>The fields are wired by the generated <code>AndroidLocatorRegistry</code> (see LocatorRegistryProcessor), so they must not be private.</p>
  */
 public class AndroidLocator extends AppiumUtils {
 
@@ -17,7 +16,6 @@ public class AndroidLocator extends AppiumUtils {
 
     public AndroidLocator(AndroidDriver driver) {
         this.driver = driver;
-        PageFactory.initElements(new AppiumFieldDecorator(driver), this);
     }
 
     // xpath locators
@@ -4,7 +4,13 @@ import common.AppiumUtils;
 import io.appium.java_client.ios.IOSDriver;
 import io.appium.java_client.pagefactory.AppiumFieldDecorator;
 import org.openqa.selenium.support.PageFactory;
+import utilities.AnnotationProcessor;
 
+/**
+ * <b>Class containing iOS web elements (locators) with custom annotations (alias)</b>
+ * <p>Fields annotated with <code>@IOSFindByAlias</code> get the same lazy, aliased proxies as the Android locators. Fields with a plain
+ * <code>@iOSXCUITFindBy</code> are still initialized by the PageFactory.</p>
+ */
 public class IOSLocator extends AppiumUtils {
 
     IOSDriver driver;
@@ -12,5 +18,6 @@ public class IOSLocator extends AppiumUtils {
     public IOSLocator(IOSDriver driver) {
         this.driver = driver;
         PageFactory.initElements(new AppiumFieldDecorator(driver), this);
+        new AnnotationProcessor(driver).processAnnotations(this);
     }
 }
@@ -4,11 +4,16 @@ import common.AppiumUtils;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.android.options.UiAutomator2Options;
 import locators.AndroidLocator;
+import locators.AndroidLocatorRegistry;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.remote.DesiredCapabilities;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import utilities.AnnotationProcessor;
+import utilities.ContextManager;
+import utilities.FlutterSync;
+import utilities.ScrollIndex;
+import utilities.TimeoutManager;
 
 import java.net.URI;
 import java.time.Duration;
@@ -47,9 +52,14 @@ public class AndroidBase extends AppiumUtils {
             driver = new AndroidDriver(new URI(uri).toURL(), options);
             logInfo("Launching application on server address --> " + uri);
             getSessionID();
+            ContextManager.reset();
+            ScrollIndex.reset();
 
-            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(implicitWait));
+            TimeoutManager.configure(driver, Duration.ofSeconds(implicitWait));
             loadAndroidLocators();
+            if (FlutterSync.isEnabled()) {
+                FlutterSync.waitForFirstFrame(driver);
+            }
             logInfo("---------------------------------------------");
         } catch (Exception e) {
             logError("[" + e.getClass().getSimpleName() + "] | Message --> " + e.getMessage());
@@ -100,12 +110,13 @@ public class AndroidBase extends AppiumUtils {
     }
 
     /**
-     * <b>Loads and processes Android locators using the AnnotationProcessor.</b>
+     * <b>Loads Android locators using the registry generated at compile time.</b>
+     * <p>Other page objects can still be processed at runtime with the AnnotationProcessor.</p>
      */
     private void loadAndroidLocators() {
         androidLocator = new AndroidLocator(driver);
         annotationProcessor = new AnnotationProcessor(driver);
-        annotationProcessor.processAnnotations(androidLocator);
+        AndroidLocatorRegistry.register(driver, androidLocator);
         logInfo("Android locators loaded");
     }
 
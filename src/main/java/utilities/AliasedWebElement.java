@@ -0,0 +1,191 @@
+package utilities;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * <b>A concrete WebElement for an aliased locator field that calls the located element directly.</b>
+ * <p>This is the <code>direct</code> backend of {@link WebElementProxyHandler#createProxy}. It shares the lookup, caching and alias
+ * logging of the handler, but dispatches every WebElement method with a plain call instead of a reflective Method.invoke.</p>
+ */
+public class AliasedWebElement implements WebElement, WrapsElement {
+
+    private final WebElementProxyHandler handler;
+
+    public AliasedWebElement(WebElementProxyHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * <b>Runs the call on the located element, retrying once with a fresh lookup if the cached element went stale.</b>
+     *
+     * @param methodName the name of the WebElement method, used to detect interactions.
+     * @param call       the call to run on the located element.
+     * @param <T>        the return type of the call.
+     * @return the result of the call.
+     */
+    private <T> T call(String methodName, Function<WebElement, T> call) {
+        try {
+            try {
+                return call.apply(handler.resolveElement());
+            } catch (RuntimeException e) {
+                if (!handler.evictIfStale(e)) {
+                    throw e;
+                }
+                return call.apply(handler.resolveElement());
+            }
+        } finally {
+            handler.afterCall(methodName);
+        }
+    }
+
+    /**
+     * <b>Returns the compiled locator of this element.</b>
+     *
+     * @return the compiled locator.
+     */
+    public CompiledLocator getLocator() {
+        return handler.getLocator();
+    }
+
+    @Override
+    public WebElement getWrappedElement() {
+        return call("getWrappedElement", element -> element);
+    }
+
+    @Override
+    public void click() {
+        call("click", element -> {
+            element.click();
+            return null;
+        });
+    }
+
+    @Override
+    public void submit() {
+        call("submit", element -> {
+            element.submit();
+            return null;
+        });
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        call("sendKeys", element -> {
+            element.sendKeys(keysToSend);
+            return null;
+        });
+    }
+
+    @Override
+    public void clear() {
+        call("clear", element -> {
+            element.clear();
+            return null;
+        });
+    }
+
+    @Override
+    public String getTagName() {
+        return call("getTagName", WebElement::getTagName);
+    }
+
+    @Override
+    public String getDomProperty(String name) {
+        return call("getDomProperty", element -> element.getDomProperty(name));
+    }
+
+    @Override
+    public String getDomAttribute(String name) {
+        return call("getDomAttribute", element -> element.getDomAttribute(name));
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        return call("getAttribute", element -> element.getAttribute(name));
+    }
+
+    @Override
+    public String getAriaRole() {
+        return call("getAriaRole", WebElement::getAriaRole);
+    }
+
+    @Override
+    public String getAccessibleName() {
+        return call("getAccessibleName", WebElement::getAccessibleName);
+    }
+
+    @Override
+    public boolean isSelected() {
+        return call("isSelected", WebElement::isSelected);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return call("isEnabled", WebElement::isEnabled);
+    }
+
+    @Override
+    public String getText() {
+        return call("getText", WebElement::getText);
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return call("findElements", element -> element.findElements(by));
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return call("findElement", element -> element.findElement(by));
+    }
+
+    @Override
+    public SearchContext getShadowRoot() {
+        return call("getShadowRoot", WebElement::getShadowRoot);
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        return call("isDisplayed", WebElement::isDisplayed);
+    }
+
+    @Override
+    public Point getLocation() {
+        return call("getLocation", WebElement::getLocation);
+    }
+
+    @Override
+    public Dimension getSize() {
+        return call("getSize", WebElement::getSize);
+    }
+
+    @Override
+    public Rectangle getRect() {
+        return call("getRect", WebElement::getRect);
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        return call("getCssValue", element -> element.getCssValue(propertyName));
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return call("getScreenshotAs", element -> element.getScreenshotAs(target));
+    }
+
+    @Override
+    public String toString() {
+        return handler.getLocator().description();
+    }
+}
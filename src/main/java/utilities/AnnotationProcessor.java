@@ -1,8 +1,10 @@
 package utilities;
 
 import annotations.AndroidFindByWithAlias;
-import io.appium.java_client.android.AndroidDriver;
-import io.appium.java_client.pagefactory.AndroidFindBy;
+import annotations.IOSFindByAlias;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.ios.IOSDriver;
+import org.openqa.selenium.Platform;
 import org.openqa.selenium.WebElement;
 
 import java.lang.reflect.Field;
@@ -12,43 +14,75 @@ import static common.AppiumUtils.logError;
 
 /**
  * <b>Processes custom annotations and injects proxy WebElement instances.</b>
- * <p>This class is responsible for processing the custom `@AndroidFindByWithAlias` annotations on page object fields. It creates proxy WebElement instances and injects them into the annotated fields.</p>
+ * <p>This class is responsible for processing the custom `@AndroidFindByWithAlias` and `@IOSFindByAlias` annotations on page object fields. It compiles each locator once and injects a proxy WebElement built from it into the annotated field.
+ * When a field carries both annotations, the one matching the platform of the driver is used, so the same page object runs on Android and iOS.</p>
  */
 public class AnnotationProcessor {
 
-    public AndroidDriver driver;
+    public AppiumDriver driver;
+    private final boolean ios;
 
-    public AnnotationProcessor(AndroidDriver driver) {
+    public AnnotationProcessor(AppiumDriver driver) {
         this.driver = driver;
+        this.ios = isIOS(driver);
+    }
+
+    /**
+     * <b>Checks if the driver runs an iOS session.</b>
+     *
+     * @param driver the AppiumDriver instance.
+     * @return true for an IOSDriver or a session with the iOS platform name.
+     */
+    public static boolean isIOS(AppiumDriver driver) {
+        if (driver instanceof IOSDriver) {
+            return true;
+        }
+        Platform platform = driver.getCapabilities().getPlatformName();
+        return platform != null && platform.is(Platform.IOS);
     }
 
     /**
      * <b>Processes the annotations on the provided page object, creates proxy WebElement instances, and injects them into the fields.</b>
-     * <p>This method scans the provided page object for fields annotated with `@AndroidFindByWithAlias`, creates proxy WebElement instances for them, and injects these proxies into the fields.</p>
+     * <p>This method scans the provided page object for fields annotated with `@AndroidFindByWithAlias` or `@IOSFindByAlias`, compiles their locators, creates proxy WebElement instances for them, and injects these proxies into the fields.</p>
      *
      * @param page the page object containing the fields to be processed.
      */
     public void processAnnotations(Object page) {
-        try {
-            Field[] fields = page.getClass().getDeclaredFields();
-            for (Field field : fields) {
-                if (field.isAnnotationPresent(AndroidFindByWithAlias.class)) {
-                    AndroidFindByWithAlias annotation = field.getAnnotation(AndroidFindByWithAlias.class);
-                    String currentAlias = annotation.alias();
-                    AndroidFindBy androidFindBy = annotation.androidFindBy();
-
-                    // Create a proxy WebElement
-                    WebElement webElement = WebElementProxyHandler.createProxy(driver, androidFindBy, currentAlias);
+        for (Field field : page.getClass().getDeclaredFields()) {
+            // One broken locator must not leave the other fields of the page unset
+            try {
+                CompiledLocator locator = compile(field);
+                if (locator != null) {
+                    // Create a proxy WebElement from the compiled locator
+                    WebElement webElement = WebElementProxyHandler.createProxy(driver, locator);
 
                     // Set proxy WebElement to the field
                     field.setAccessible(true);
                     field.set(page, webElement);
-//                    logInfo(currentAlias + ", WebElement proxy created."); // DEBUG - non-proxy currentAlias
+//                    logInfo(locator.alias() + ", WebElement proxy created."); // DEBUG - non-proxy alias
                 }
+            } catch (Exception e) {
+                logError("[" + e.getClass().getSimpleName() + "] Cannot create the element of field '" + field.getName() + "' | Message --> "
+                        + e.getMessage());
             }
-        } catch (Exception e) {
-            logError("[EXCEPTION] " + e.getClass().getName() + " | Message --> " + e.getClass().getSimpleName());
         }
     }
-}
 
+    /**
+     * <b>Compiles the locator of a field for the platform of the driver.</b>
+     *
+     * @param field the page object field.
+     * @return the compiled locator, or null if the field has no aliased locator annotation.
+     */
+    private CompiledLocator compile(Field field) {
+        IOSFindByAlias iOSAnnotation = field.getAnnotation(IOSFindByAlias.class);
+        AndroidFindByWithAlias androidAnnotation = field.getAnnotation(AndroidFindByWithAlias.class);
+        if (iOSAnnotation != null && (ios || androidAnnotation == null)) {
+            return CompiledLocator.compile(iOSAnnotation, field.getName());
+        }
+        if (androidAnnotation != null) {
+            return CompiledLocator.compile(androidAnnotation);
+        }
+        return null;
+    }
+}
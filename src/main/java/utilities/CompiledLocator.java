@@ -0,0 +1,272 @@
+package utilities;
+
+import annotations.AndroidFindByWithAlias;
+import annotations.IOSFindByAlias;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import io.appium.java_client.pagefactory.iOSXCUITFindBy;
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static common.AppiumUtils.logError;
+
+/**
+ * <b>An immutable, pre-built locator for one aliased element.</b>
+ * <p>The locator strategy of an annotation is resolved once, when the annotations are processed, so proxies can look the element up
+ * without reading annotations or building strings on every call. A locator can carry fallback strategies for the same element, which
+ * the proxy tries in the order learned by {@link StrategyRanking}. Flutter locators hold an encoded finder instead of a By and are
+ * resolved in the FLUTTER context by {@link FlutterFinder}.</p>
+ */
+public final class CompiledLocator {
+
+    private final String strategy;
+    private final String value;
+    private final By by;
+    private final String description;
+    private final String alias;
+    private final List<CompiledLocator> candidates;
+
+    private CompiledLocator(String strategy, String value, By by, String description, String alias) {
+        this.strategy = strategy;
+        this.value = value;
+        this.by = by;
+        this.description = description.intern();
+        this.alias = alias.intern();
+        this.candidates = Collections.singletonList(this);
+    }
+
+    private CompiledLocator(CompiledLocator primary, List<CompiledLocator> candidates) {
+        this.strategy = primary.strategy;
+        this.value = primary.value;
+        this.by = primary.by;
+        this.description = primary.description;
+        this.alias = primary.alias;
+        this.candidates = Collections.unmodifiableList(candidates);
+    }
+
+    /**
+     * <b>Returns a copy of this locator with fallback strategies for the same element.</b>
+     *
+     * @param fallbacks the fallback locators, in declaration order.
+     * @return the locator with its fallbacks.
+     */
+    public CompiledLocator withFallbacks(CompiledLocator... fallbacks) {
+        if (fallbacks.length == 0) {
+            return this;
+        }
+        List<CompiledLocator> all = new ArrayList<>();
+        all.add(candidates.get(0));
+        Collections.addAll(all, fallbacks);
+        return new CompiledLocator(this, all);
+    }
+
+    /**
+     * <b>Compiles all strategies of an AndroidFindByWithAlias annotation.</b>
+     * <p>A Flutter finder, when set, is the primary strategy and the AndroidFindBy becomes its first fallback. The declared fallbacks
+     * follow in declaration order.</p>
+     *
+     * @param annotation the AndroidFindByWithAlias annotation of the field.
+     * @return the compiled locator with its fallbacks.
+     * @throws IllegalArgumentException if no strategy is set or a locator type is unsupported.
+     */
+    public static CompiledLocator compile(AndroidFindByWithAlias annotation) {
+        String alias = annotation.alias();
+        List<CompiledLocator> fallbacks = new ArrayList<>();
+        CompiledLocator primary;
+        if (!FlutterFinder.isEmpty(annotation.flutterFindBy())) {
+            primary = of("flutter", FlutterFinder.encode(annotation.flutterFindBy()), alias);
+            if (!isEmpty(annotation.androidFindBy())) {
+                fallbacks.add(compile(annotation.androidFindBy(), alias));
+            }
+        } else {
+            primary = compile(annotation.androidFindBy(), alias);
+        }
+        for (AndroidFindBy fallback : annotation.fallbacks()) {
+            fallbacks.add(compile(fallback, alias));
+        }
+        return primary.withFallbacks(fallbacks.toArray(new CompiledLocator[0]));
+    }
+
+    private static boolean isEmpty(AndroidFindBy androidFindBy) {
+        return androidFindBy.id().isEmpty() && androidFindBy.xpath().isEmpty() && androidFindBy.accessibility().isEmpty()
+                && androidFindBy.className().isEmpty() && androidFindBy.uiAutomator().isEmpty() && androidFindBy.tagName().isEmpty();
+    }
+
+    /**
+     * <b>Compiles the first non-empty strategy of an AndroidFindBy annotation.</b>
+     *
+     * @param androidFindBy the AndroidFindBy annotation containing the locator strategy.
+     * @param alias         the alias name for the element.
+     * @return the compiled locator.
+     * @throws IllegalArgumentException if the locator type is unsupported.
+     */
+    public static CompiledLocator compile(AndroidFindBy androidFindBy, String alias) {
+        if (!androidFindBy.id().isEmpty()) {
+            return of("id", androidFindBy.id(), alias);
+        } else if (!androidFindBy.xpath().isEmpty()) {
+            return of("xpath", androidFindBy.xpath(), alias);
+        } else if (!androidFindBy.accessibility().isEmpty()) {
+            return of("accessibility", androidFindBy.accessibility(), alias);
+        } else if (!androidFindBy.className().isEmpty()) {
+            return of("className", androidFindBy.className(), alias);
+        } else if (!androidFindBy.uiAutomator().isEmpty()) {
+            return of("uiAutomator", androidFindBy.uiAutomator(), alias);
+        } else if (!androidFindBy.tagName().isEmpty()) {
+            return of("tagName", androidFindBy.tagName(), alias);
+        }
+        return of("", "", alias);
+    }
+
+    /**
+     * <b>Compiles all strategies of an IOSFindByAlias annotation.</b>
+     *
+     * @param annotation the IOSFindByAlias annotation of the field.
+     * @param fieldName  the name of the field, used as alias when the annotation has none.
+     * @return the compiled locator with its fallbacks.
+     * @throws IllegalArgumentException if a locator type is unsupported.
+     */
+    public static CompiledLocator compile(IOSFindByAlias annotation, String fieldName) {
+        String alias = annotation.alias().isEmpty() ? fieldName : annotation.alias();
+        CompiledLocator[] fallbacks = new CompiledLocator[annotation.fallbacks().length];
+        for (int i = 0; i < fallbacks.length; i++) {
+            fallbacks[i] = compile(annotation.fallbacks()[i], alias);
+        }
+        return compile(annotation.value(), alias).withFallbacks(fallbacks);
+    }
+
+    /**
+     * <b>Compiles the first non-empty strategy of an iOSXCUITFindBy annotation.</b>
+     *
+     * @param iOSFindBy the iOSXCUITFindBy annotation containing the locator strategy.
+     * @param alias     the alias name for the element.
+     * @return the compiled locator.
+     * @throws IllegalArgumentException if the locator type is unsupported.
+     */
+    public static CompiledLocator compile(iOSXCUITFindBy iOSFindBy, String alias) {
+        if (!iOSFindBy.accessibility().isEmpty()) {
+            return of("accessibility", iOSFindBy.accessibility(), alias);
+        } else if (!iOSFindBy.id().isEmpty()) {
+            return of("id", iOSFindBy.id(), alias);
+        } else if (!iOSFindBy.name().isEmpty()) {
+            return of("name", iOSFindBy.name(), alias);
+        } else if (!iOSFindBy.iOSClassChain().isEmpty()) {
+            return of("iOSClassChain", iOSFindBy.iOSClassChain(), alias);
+        } else if (!iOSFindBy.iOSNsPredicate().isEmpty()) {
+            return of("iOSNsPredicate", iOSFindBy.iOSNsPredicate(), alias);
+        } else if (!iOSFindBy.className().isEmpty()) {
+            return of("className", iOSFindBy.className(), alias);
+        } else if (!iOSFindBy.xpath().isEmpty()) {
+            return of("xpath", iOSFindBy.xpath(), alias);
+        } else if (!iOSFindBy.tagName().isEmpty()) {
+            return of("tagName", iOSFindBy.tagName(), alias);
+        }
+        return of("", "", alias);
+    }
+
+    /**
+     * <b>Compiles a locator from a strategy name and its value.</b>
+     *
+     * @param strategy the strategy name (id, xpath, accessibility, className, uiAutomator, tagName, name, iOSClassChain, iOSNsPredicate
+     *                 or flutter).
+     * @param value    the locator value, for flutter the encoded finder.
+     * @param alias    the alias name for the element.
+     * @return the compiled locator.
+     * @throws IllegalArgumentException if the locator type is unsupported.
+     */
+    public static CompiledLocator of(String strategy, String value, String alias) {
+        switch (strategy) {
+            case "id":
+                return new CompiledLocator(strategy, value, By.id(value), "Locator: By.id(\"" + value + "\")", alias);
+            case "xpath":
+                return new CompiledLocator(strategy, value, By.xpath(value), "Locator: By.xpath(\"" + value + "\")", alias);
+            case "accessibility":
+                return new CompiledLocator(strategy, value, new AppiumBy.ByAccessibilityId(value), "Locator: AppiumBy.ByAccessibilityId(\"" + value + "\")", alias);
+            case "className":
+                return new CompiledLocator(strategy, value, By.className(value), "Locator: By.className(\"" + value + "\")", alias);
+            case "uiAutomator":
+                return new CompiledLocator(strategy, value, AppiumBy.androidUIAutomator(value), "Locator: AppiumBy.androidUIAutomator(\"" + value + "\")", alias);
+            case "tagName":
+                return new CompiledLocator(strategy, value, By.tagName(value), "Locator: By.tagName(\"" + value + "\")", alias);
+            case "name":
+                return new CompiledLocator(strategy, value, By.name(value), "Locator: By.name(\"" + value + "\")", alias);
+            case "iOSClassChain":
+                return new CompiledLocator(strategy, value, AppiumBy.iOSClassChain(value), "Locator: AppiumBy.iOSClassChain(\"" + value + "\")", alias);
+            case "iOSNsPredicate":
+                return new CompiledLocator(strategy, value, AppiumBy.iOSNsPredicateString(value), "Locator: AppiumBy.iOSNsPredicateString(\"" + value + "\")", alias);
+            case "flutter":
+                return new CompiledLocator(strategy, value, null, "Locator: FlutterFinder(" + FlutterFinder.decode(value) + ")", alias);
+            default:
+                logError("Unsupported locator type for " + alias + ". Pass one of the following - \n" +
+                        "1. id\n" +
+                        "2. xpath\n" +
+                        "3. tagName\n" +
+                        "4. className\n" +
+                        "5. uiAutomator\n" +
+                        "6. accessibility\n" +
+                        "7. name\n" +
+                        "8. iOSClassChain\n" +
+                        "9. iOSNsPredicate\n" +
+                        "10. flutter\n");
+                throw new IllegalArgumentException("Unsupported locator type");
+        }
+    }
+
+    public String strategy() {
+        return strategy;
+    }
+
+    public String value() {
+        return value;
+    }
+
+    /**
+     * <b>Returns the Selenium locator of this strategy.</b>
+     *
+     * @return the By, or null for a flutter locator.
+     */
+    public By by() {
+        return by;
+    }
+
+    public boolean isFlutter() {
+        return "flutter".equals(strategy);
+    }
+
+    /**
+     * <b>Returns the Appium context this strategy is resolved in.</b>
+     *
+     * @return FLUTTER for flutter locators, NATIVE_APP otherwise.
+     */
+    public String context() {
+        return isFlutter() ? ContextManager.FLUTTER : ContextManager.NATIVE_APP;
+    }
+
+    public String description() {
+        return description;
+    }
+
+    public String alias() {
+        return alias;
+    }
+
+    /**
+     * <b>Returns all strategies of this locator, the primary one first and then the fallbacks.</b>
+     *
+     * @return the candidate locators, each of them without fallbacks.
+     */
+    public List<CompiledLocator> candidates() {
+        return candidates;
+    }
+
+    public boolean hasFallbacks() {
+        return candidates.size() > 1;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
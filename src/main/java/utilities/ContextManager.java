@@ -0,0 +1,57 @@
+package utilities;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.remote.SupportsContextSwitching;
+
+import static common.AppiumUtils.logInfo;
+
+/**
+ * <b>Tracks the active Appium context and switches it only when a locator needs a different one.</b>
+ * <p>Flutter locators are resolved in the FLUTTER context and all other locators in NATIVE_APP. The current context is tracked on the
+ * client, so consecutive lookups in the same context do not cost a request, and suites without Flutter locators never switch.</p>
+ */
+public class ContextManager {
+
+    public static final String NATIVE_APP = "NATIVE_APP";
+    public static final String FLUTTER = "FLUTTER";
+    private static String currentContext = NATIVE_APP;
+    private static long switches;
+
+    private ContextManager() {
+    }
+
+    /**
+     * <b>Switches to the given context if it is not the active one.</b>
+     *
+     * @param driver  the AppiumDriver instance, which must support context switching.
+     * @param context the context name, e.g. NATIVE_APP or FLUTTER.
+     */
+    public static synchronized void ensure(AppiumDriver driver, String context) {
+        if (context.equals(currentContext)) {
+            return;
+        }
+        ((SupportsContextSwitching) driver).context(context);
+        currentContext = context;
+        switches++;
+    }
+
+    /**
+     * <b>Returns the context the driver is in.</b>
+     *
+     * @return the current context name.
+     */
+    public static synchronized String current() {
+        return currentContext;
+    }
+
+    /**
+     * <b>Resets the tracked context after a new session has been started, which always begins in NATIVE_APP.</b>
+     */
+    public static synchronized void reset() {
+        if (switches > 0) {
+            logInfo("Context switches in previous session: " + switches);
+        }
+        currentContext = NATIVE_APP;
+        switches = 0;
+    }
+}
@@ -0,0 +1,108 @@
+package utilities;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static common.AppiumUtils.logInfo;
+import static common.Core.elementCache;
+
+/**
+ * <b>Keeps track of the screen state that cached proxy elements belong to.</b>
+ * <p>When the <code>elementCache</code> config is enabled, every {@link WebElementProxyHandler} keeps the element it resolved last and reuses it
+ * as long as the screen generation has not moved on. The generation moves on whenever an interaction (tap, typing, gestures) may have changed
+ * the screen, or when a new activity or page-source hash is observed. Stale elements are re-resolved by the proxy itself.</p>
+ */
+public class ElementCache {
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong staleRetries = new AtomicLong();
+    private static volatile long generation = 0;
+    private static String lastActivity = "";
+    private static int lastPageSourceHash = 0;
+
+    private ElementCache() {
+    }
+
+    /**
+     * <b>Checks if the element cache is switched on in the configuration.</b>
+     *
+     * @return true if proxies should reuse resolved elements.
+     */
+    public static boolean isEnabled() {
+        return elementCache;
+    }
+
+    /**
+     * <b>Returns the current screen generation.</b>
+     *
+     * @return the generation number that newly resolved elements belong to.
+     */
+    public static long generation() {
+        return generation;
+    }
+
+    /**
+     * <b>Checks if an element resolved in the given generation can still be reused.</b>
+     *
+     * @param elementGeneration the generation the element was resolved in.
+     * @return true if the screen has not changed since.
+     */
+    public static boolean isCurrent(long elementGeneration) {
+        return elementGeneration == generation;
+    }
+
+    /**
+     * <b>Marks the screen as changed, so every cached element gets resolved again on its next use.</b>
+     */
+    public static void invalidateScreen() {
+        generation++;
+    }
+
+    /**
+     * <b>Feeds an already fetched activity and page source into the cache.</b>
+     * <p>This does not talk to the server; callers that fetch these values anyway pass them here so a changed screen invalidates the cache.</p>
+     *
+     * @param activity   the current activity, or null if unknown.
+     * @param pageSource the current page source, or null if unknown.
+     */
+    public static synchronized void observeScreen(String activity, String pageSource) {
+        boolean changed = false;
+        if (activity != null && !activity.equals(lastActivity)) {
+            lastActivity = activity;
+            changed = true;
+        }
+        if (pageSource != null && pageSource.hashCode() != lastPageSourceHash) {
+            lastPageSourceHash = pageSource.hashCode();
+            changed = true;
+        }
+        if (changed) {
+            invalidateScreen();
+        }
+    }
+
+    public static void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    public static void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    public static void recordStaleRetry() {
+        staleRetries.incrementAndGet();
+    }
+
+    /**
+     * <b>Logs the hit/miss counters and resets them for the next suite.</b>
+     */
+    public static void logStatistics() {
+        if (!isEnabled()) {
+            return;
+        }
+        long hitCount = hits.getAndSet(0);
+        long missCount = misses.getAndSet(0);
+        long staleCount = staleRetries.getAndSet(0);
+        logInfo("Element cache: " + hitCount + " hits, " + missCount + " misses, " + staleCount + " stale re-resolutions"
+                + " | Find requests saved: " + (hitCount - staleCount));
+    }
+}
@@ -0,0 +1,174 @@
+package utilities;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <b>The state of one element, fetched once and reused for the duration of an action.</b>
+ * <p>Every call on an aliased proxy looks the element up again, so reading the location, size, text and content-desc separately costs a
+ * find request for each of them. An ElementState resolves the element once and fetches each property at most once:</p>
+ * <ul>
+ *   <li><b>{@link #capture}:</b> reads rect, displayed, enabled, text and content-desc from one page snapshot, if the locator can be
+ *   evaluated locally. Otherwise it behaves like {@link #live}.</li>
+ *   <li><b>{@link #live}:</b> resolves the element once and fetches each property lazily on first use; geometry comes from a single
+ *   <code>getRect</code> request.</li>
+ * </ul>
+ */
+public class ElementState {
+
+    private final WebElement element;
+    private final Map<String, String> attributes;
+    private final boolean ios;
+    private WebElement target;
+    private Rectangle rect;
+    private Boolean displayed;
+    private Boolean enabled;
+    private String text;
+    private String contentDesc;
+
+    private ElementState(WebElement element, Map<String, String> attributes, boolean ios) {
+        this.element = element;
+        this.attributes = attributes;
+        this.ios = ios;
+    }
+
+    /**
+     * <b>Captures the state of an element from one page snapshot, falling back to a live element.</b>
+     *
+     * @param element the aliased WebElement.
+     * @param driver  the AppiumDriver instance used to fetch the page source.
+     * @return the element state.
+     */
+    public static ElementState capture(WebElement element, AppiumDriver driver) {
+        CompiledLocator locator = WebElementProxyHandler.locatorOf(element);
+        if (locator != null && PageSnapshot.supports(locator)) {
+            try {
+                return capture(element, PageSnapshot.capture(driver));
+            } catch (RuntimeException e) {
+                // The live element below still works, only the batching is lost
+            }
+        }
+        return live(element);
+    }
+
+    /**
+     * <b>Captures the state of an element from an existing page snapshot, falling back to a live element.</b>
+     * <p>Use it to read several elements from one snapshot.</p>
+     *
+     * @param element  the aliased WebElement.
+     * @param snapshot the page snapshot to read from.
+     * @return the element state.
+     */
+    public static ElementState capture(WebElement element, PageSnapshot snapshot) {
+        CompiledLocator locator = WebElementProxyHandler.locatorOf(element);
+        Element node = locator == null ? null : snapshot.find(locator);
+        if (node == null) {
+            return live(element);
+        }
+        Map<String, String> attributes = new HashMap<>();
+        NamedNodeMap nodeAttributes = node.getAttributes();
+        for (int i = 0; i < nodeAttributes.getLength(); i++) {
+            Node attribute = nodeAttributes.item(i);
+            attributes.put(attribute.getNodeName(), attribute.getNodeValue());
+        }
+        return new ElementState(element, attributes, node.getOwnerDocument().getDocumentElement().getNodeName().equals("AppiumAUT"));
+    }
+
+    /**
+     * <b>Creates a state that resolves the element once and fetches its properties on first use.</b>
+     *
+     * @param element the WebElement, aliased or not.
+     * @return the element state.
+     */
+    public static ElementState live(WebElement element) {
+        return new ElementState(element, null, false);
+    }
+
+    private WebElement target() {
+        if (target == null) {
+            target = element instanceof WrapsElement ? ((WrapsElement) element).getWrappedElement() : element;
+        }
+        return target;
+    }
+
+    public Rectangle getRect() {
+        if (rect == null) {
+            rect = attributes == null ? target().getRect() : parseRect();
+        }
+        return rect;
+    }
+
+    public boolean isDisplayed() {
+        if (displayed == null) {
+            displayed = attributes == null ? target().isDisplayed() : !"false".equals(attributes.get(ios ? "visible" : "displayed"));
+        }
+        return displayed;
+    }
+
+    public boolean isEnabled() {
+        if (enabled == null) {
+            enabled = attributes == null ? target().isEnabled() : !"false".equals(attributes.get("enabled"));
+        }
+        return enabled;
+    }
+
+    public String getText() {
+        if (text == null) {
+            if (attributes == null) {
+                text = target().getText();
+            } else if (ios) {
+                String value = attributes.getOrDefault("value", "");
+                text = value.isEmpty() ? attributes.getOrDefault("label", "") : value;
+            } else {
+                text = attributes.getOrDefault("text", "");
+            }
+        }
+        return text;
+    }
+
+    public String getContentDesc() {
+        if (contentDesc == null) {
+            contentDesc = getAttribute(ios ? "name" : "content-desc");
+        }
+        return contentDesc;
+    }
+
+    /**
+     * <b>Reads an attribute of the element.</b>
+     *
+     * @param name the attribute name, e.g. content-desc or resource-id.
+     * @return the attribute value.
+     */
+    public String getAttribute(String name) {
+        if (attributes == null) {
+            return target().getAttribute(name);
+        }
+        return attributes.get(name);
+    }
+
+    /**
+     * <b>Parses the geometry of a snapshot node: bounds="[x1,y1][x2,y2]" on Android, x/y/width/height on iOS.</b>
+     *
+     * @return the rectangle of the element.
+     */
+    private Rectangle parseRect() {
+        if (ios) {
+            return new Rectangle(Integer.parseInt(attributes.get("x")), Integer.parseInt(attributes.get("y")),
+                    Integer.parseInt(attributes.get("height")), Integer.parseInt(attributes.get("width")));
+        }
+        String[] bounds = attributes.get("bounds").replaceAll("[\\[\\]]", " ").trim().split("[ ,]+");
+        int x1 = Integer.parseInt(bounds[0]);
+        int y1 = Integer.parseInt(bounds[1]);
+        int x2 = Integer.parseInt(bounds[2]);
+        int y2 = Integer.parseInt(bounds[3]);
+        return new Rectangle(x1, y1, y2 - y1, x2 - x1);
+    }
+}
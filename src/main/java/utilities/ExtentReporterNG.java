@@ -5,7 +5,6 @@ import com.aventstack.extentreports.reporter.ExtentSparkReporter;
 import com.aventstack.extentreports.reporter.configuration.ViewName;
 import common.AppiumUtils;
 import io.appium.java_client.AppiumDriver;
-import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.OutputType;
 
 import java.io.File;
@@ -24,6 +23,7 @@ public class ExtentReporterNG extends AppiumUtils {
     public static String reportingDate = "";
     public static String reportFilePath = "";
     public static String reportDirPath = "";
+    private static int reportPart = 1;
 
     /**
      * <b>Initializes and returns the ExtentReports object for reporting.</b>
@@ -48,6 +48,24 @@ public class ExtentReporterNG extends AppiumUtils {
         return extentReports;
     }
 
+    /**
+     * <b>Starts the next part of a streamed report and returns its ExtentReports object.</b>
+     * <p>The caller flushes the previous part first. Its model is no longer referenced, which keeps the heap bounded in long suites, see
+     * {@link ReportStream}.</p>
+     *
+     * @return the ExtentReports instance of the new part.
+     */
+    public static ExtentReports nextReportPart() {
+        reportPart++;
+        reporter = new ExtentSparkReporter(reportDirPath + "/report-" + reportPart + ".html");
+        setupReportConfig();
+
+        extentReports = new ExtentReports();
+        extentReports.attachReporter(reporter);
+        extentReports.setSystemInfo("Tester", loggedInUsername);
+        return extentReports;
+    }
+
     /**
      * <b>Sets up the configuration for the Extent Report.</b>
      * <p>This method loads the Extent Report configuration from a XML/JSON file and sets the view order for the report.</p>
@@ -79,7 +97,8 @@ public class ExtentReporterNG extends AppiumUtils {
 
     /**
      * <b>Captures a screenshot and returns the file path.</b>
-     * <p>This method captures a screenshot using the AppiumDriver and saves it to the specified directory.</p>
+     * <p>This method captures the screenshot bytes using the AppiumDriver and returns the final path at once, see
+     * {@link #saveScreenshot}. The file is written in the background by the {@link ScreenshotPipeline}.</p>
      *
      * @param testcaseName the name of the test case.
      * @param status       the status of the test step (e.g., "pass" or "fail").
@@ -88,22 +107,59 @@ public class ExtentReporterNG extends AppiumUtils {
      */
     public static String getScreenshot(String testcaseName, String status, AppiumDriver driver) {
         String destination = "";
-        String stats = status.equalsIgnoreCase("pass") ? "passed" : "failed";
-        String imgPath = "\\testReports\\"
-                + reportingDate + "\\screenshots\\"
-                + testcaseName + "\\" + stats
-                + "\\Image-"
-                + System.currentTimeMillis() + ".png";
+        long start = System.nanoTime();
         try {
-            File source = driver.getScreenshotAs(OutputType.FILE);
-            destination = userDirPath + imgPath;
-            FileUtils.copyFile(source, new File(destination));
+            byte[] png = driver.getScreenshotAs(OutputType.BYTES);
+            destination = saveScreenshot(testcaseName, status, png, false);
+            ScreenshotPipeline.recordCapture(System.nanoTime() - start);
         } catch (Exception e) {
             logError("[" + e.getClass().getSimpleName() + "] | Message --> " + e.getMessage());
         }
         return destination;
     }
 
+    /**
+     * <b>Saves captured screenshot bytes and returns the path the report links to.</b>
+     * <p>With the <code>screenshotStore</code> config enabled, the screenshot goes to the shared {@link ScreenshotStore} and the link is
+     * relative to the report folder. Otherwise it is written below the screenshots folder of this run.</p>
+     *
+     * @param testcaseName  the name of the test case.
+     * @param status        the status of the test step (e.g., "pass" or "fail").
+     * @param png           the screenshot bytes.
+     * @param unlessSimilar true to reuse the last saved screenshot if it looks the same, see {@link ScreenshotStore#put} and
+     *                      {@link ScreenshotPipeline#persistUnlessSimilar}.
+     * @return the path of the screenshot for the report.
+     */
+    static String saveScreenshot(String testcaseName, String status, byte[] png, boolean unlessSimilar) {
+        if (screenshotStore) {
+            return ScreenshotStore.put(png, unlessSimilar);
+        }
+        String destination = newScreenshotPath(testcaseName, status);
+        if (unlessSimilar) {
+            ScreenshotPipeline.persistUnlessSimilar(destination, png);
+        } else {
+            ScreenshotPipeline.persist(destination, png);
+        }
+        return destination;
+    }
+
+    /**
+     * <b>Builds the file path of a new screenshot.</b>
+     *
+     * @param testcaseName the name of the test case.
+     * @param status       the status of the test step (e.g., "pass" or "fail").
+     * @return the absolute file path.
+     */
+    static String newScreenshotPath(String testcaseName, String status) {
+        String stats = status.equalsIgnoreCase("pass") ? "passed" : "failed";
+        String imgPath = "\\testReports\\"
+                + reportingDate + "\\screenshots\\"
+                + testcaseName + "\\" + stats
+                + "\\Image-"
+                + System.currentTimeMillis() + ".jpg";
+        return userDirPath + imgPath;
+    }
+
     /**
      * <b>Creates a format of date and time for reporting.</b>
      *
@@ -0,0 +1,31 @@
+package utilities;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.remote.RemoteWebElement;
+
+/**
+ * <b>A WebElement for a Flutter widget, addressed by its encoded finder.</b>
+ * <p>The appium-flutter-driver accepts the encoded finder as element id, so the element can be clicked, typed into and read like any other
+ * element. Visibility is checked with <code>flutter:waitFor</code>, since the browser atoms used by RemoteWebElement do not exist there.</p>
+ */
+public class FlutterElement extends RemoteWebElement {
+
+    private final AppiumDriver driver;
+
+    public FlutterElement(AppiumDriver driver, String payload) {
+        this.driver = driver;
+        setParent(driver);
+        setId(payload);
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        ContextManager.ensure(driver, ContextManager.FLUTTER);
+        return FlutterFinder.isPresent(driver, getId());
+    }
+
+    @Override
+    public String toString() {
+        return "Flutter widget: " + FlutterFinder.decode(getId());
+    }
+}
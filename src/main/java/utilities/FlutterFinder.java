@@ -0,0 +1,275 @@
+package utilities;
+
+import annotations.FlutterFindBy;
+import annotations.FlutterMatch;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <b>Builds appium-flutter-driver finder payloads and resolves them into elements.</b>
+ * <p>A finder is the serialized form of a flutter_driver SerializableFinder: a map of strings with a <code>finderType</code>, encoded as
+ * base64 JSON. The appium-flutter-driver accepts the encoded finder as element id, so no server-side search of the accessibility hierarchy is
+ * needed. Elements are only used in the FLUTTER context, see {@link ContextManager}.</p>
+ */
+public class FlutterFinder {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final long LOOKUP_TIMEOUT_MILLIS = 500;
+    private static final long ABSENCE_TIMEOUT_MILLIS = 100;
+
+    private FlutterFinder() {
+    }
+
+    public static Map<String, String> byValueKey(String key) {
+        return finder("ByValueKey", "keyValueString", key, "keyValueType", "String");
+    }
+
+    public static Map<String, String> byValueKey(int key) {
+        return finder("ByValueKey", "keyValueString", String.valueOf(key), "keyValueType", "int");
+    }
+
+    public static Map<String, String> bySemanticsLabel(String label) {
+        return finder("BySemanticsLabel", "label", label);
+    }
+
+    public static Map<String, String> byText(String text) {
+        return finder("ByText", "text", text);
+    }
+
+    public static Map<String, String> byType(String type) {
+        return finder("ByType", "type", type);
+    }
+
+    public static Map<String, String> byTooltip(String message) {
+        return finder("ByTooltipMessage", "text", message);
+    }
+
+    /**
+     * <b>Finds the widget matching <code>matching</code> that is a descendant of <code>of</code>.</b>
+     *
+     * @param of       the finder of the ancestor widget.
+     * @param matching the finder of the widget to find.
+     * @return the finder.
+     */
+    public static Map<String, String> descendant(Map<String, String> of, Map<String, String> matching) {
+        return finder("Descendant", "of", toJson(of), "matching", toJson(matching), "matchRoot", "false");
+    }
+
+    /**
+     * <b>Finds the widget matching <code>matching</code> that is an ancestor of <code>of</code>.</b>
+     *
+     * @param of       the finder of the descendant widget.
+     * @param matching the finder of the widget to find.
+     * @return the finder.
+     */
+    public static Map<String, String> ancestor(Map<String, String> of, Map<String, String> matching) {
+        return finder("Ancestor", "of", toJson(of), "matching", toJson(matching), "matchRoot", "false");
+    }
+
+    /**
+     * <b>Encodes a finder into the payload expected by the appium-flutter-driver.</b>
+     *
+     * @param finder the finder map.
+     * @return the base64 encoded JSON of the finder.
+     */
+    public static String encode(Map<String, String> finder) {
+        return Redact.encode(toJson(finder));
+    }
+
+    /**
+     * <b>Decodes a payload back into its JSON form, used for logging.</b>
+     *
+     * @param payload the base64 encoded finder.
+     * @return the JSON of the finder.
+     */
+    public static String decode(String payload) {
+        return Redact.decode(payload);
+    }
+
+    /**
+     * <b>Checks if a FlutterFindBy annotation has no finder set.</b>
+     *
+     * @param flutterFindBy the annotation.
+     * @return true if no finder is set.
+     */
+    public static boolean isEmpty(FlutterFindBy flutterFindBy) {
+        return flutterFindBy.valueKey().isEmpty() && flutterFindBy.semanticsLabel().isEmpty() && flutterFindBy.text().isEmpty()
+                && flutterFindBy.type().isEmpty() && flutterFindBy.tooltip().isEmpty();
+    }
+
+    /**
+     * <b>Builds the encoded finder of a FlutterFindBy annotation.</b>
+     *
+     * @param flutterFindBy the annotation.
+     * @return the base64 encoded finder.
+     */
+    public static String encode(FlutterFindBy flutterFindBy) {
+        Map<String, String> matching = firstOf(flutterFindBy.valueKey(), flutterFindBy.valueKeyType(), flutterFindBy.semanticsLabel(),
+                flutterFindBy.text(), flutterFindBy.type(), flutterFindBy.tooltip());
+        if (flutterFindBy.descendantOf().length > 0) {
+            return encode(descendant(simpleFinder(flutterFindBy.descendantOf()[0]), matching));
+        } else if (flutterFindBy.ancestorOf().length > 0) {
+            return encode(ancestor(simpleFinder(flutterFindBy.ancestorOf()[0]), matching));
+        }
+        return encode(matching);
+    }
+
+    private static Map<String, String> simpleFinder(FlutterMatch match) {
+        return firstOf(match.valueKey(), match.valueKeyType(), match.semanticsLabel(), match.text(), match.type(), match.tooltip());
+    }
+
+    /**
+     * <b>Builds the finder of the first non-empty value, in the order of the FlutterFindBy annotation.</b>
+     * <p>Shared by {@link #encode(FlutterFindBy)} and the registries generated by the LocatorRegistryProcessor, which passes the annotation
+     * values unchanged.</p>
+     *
+     * @param valueKey       the ValueKey of the widget, or an empty string.
+     * @param valueKeyType   "String" or "int".
+     * @param semanticsLabel the semantics label, or an empty string.
+     * @param text           the text, or an empty string.
+     * @param type           the widget type, or an empty string.
+     * @param tooltip        the tooltip message, or an empty string.
+     * @return the finder map.
+     * @throws IllegalArgumentException if all values are empty, the key type is unknown or an int key is not a number.
+     */
+    public static Map<String, String> firstOf(String valueKey, String valueKeyType, String semanticsLabel, String text, String type, String tooltip) {
+        if (!"String".equals(valueKeyType) && !"int".equals(valueKeyType)) {
+            throw new IllegalArgumentException("Flutter valueKeyType must be \"String\" or \"int\", not \"" + valueKeyType + "\"");
+        }
+        if (!valueKey.isEmpty()) {
+            if ("String".equals(valueKeyType)) {
+                return byValueKey(valueKey);
+            }
+            try {
+                return byValueKey(Integer.parseInt(valueKey));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Flutter valueKey '" + valueKey + "' is not an int, set valueKeyType to \"String\"", e);
+            }
+        } else if (!semanticsLabel.isEmpty()) {
+            return bySemanticsLabel(semanticsLabel);
+        } else if (!text.isEmpty()) {
+            return byText(text);
+        } else if (!type.isEmpty()) {
+            return byType(type);
+        } else if (!tooltip.isEmpty()) {
+            return byTooltip(tooltip);
+        }
+        throw new IllegalArgumentException("Flutter finder needs one of: valueKey, semanticsLabel, text, type, tooltip");
+    }
+
+    /**
+     * <b>Resolves an encoded finder into an element in the FLUTTER context.</b>
+     * <p>The finder is checked with <code>flutter:waitFor</code> and a short timeout, so a missing widget raises a NoSuchElementException that
+     * the surrounding waits keep polling on.</p>
+     *
+     * @param driver  the AppiumDriver instance used to interact with elements.
+     * @param payload the base64 encoded finder.
+     * @return the element for the finder.
+     * @throws NoSuchElementException if the widget is not present.
+     */
+    public static WebElement locate(AppiumDriver driver, String payload) {
+        ContextManager.ensure(driver, ContextManager.FLUTTER);
+        if (!isPresent(driver, payload)) {
+            throw new NoSuchElementException("No Flutter widget matches " + decode(payload));
+        }
+        return new FlutterElement(driver, payload);
+    }
+
+    /**
+     * <b>Checks if a widget matching the finder is present.</b>
+     *
+     * @param driver  the AppiumDriver instance used to interact with elements.
+     * @param payload the base64 encoded finder.
+     * @return true if the widget is present.
+     * @throws WebDriverException if the driver fails for another reason than the wait timing out, e.g. a lost session.
+     */
+    public static boolean isPresent(AppiumDriver driver, String payload) {
+        try {
+            driver.executeScript("flutter:waitFor", payload, LOOKUP_TIMEOUT_MILLIS);
+            return true;
+        } catch (WebDriverException e) {
+            if (isTimeout(e)) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * <b>Checks if no widget matches the finder.</b>
+     * <p>Uses <code>flutter:waitForAbsent</code>, which returns at once when the widget is already gone.</p>
+     *
+     * @param driver  the AppiumDriver instance used to interact with elements.
+     * @param payload the base64 encoded finder.
+     * @return true if the widget is absent.
+     * @throws WebDriverException if the driver fails for another reason than the wait timing out, e.g. a lost session.
+     */
+    public static boolean isAbsent(AppiumDriver driver, String payload) {
+        ContextManager.ensure(driver, ContextManager.FLUTTER);
+        try {
+            driver.executeScript("flutter:waitForAbsent", payload, ABSENCE_TIMEOUT_MILLIS);
+            return true;
+        } catch (WebDriverException e) {
+            if (isTimeout(e)) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * <b>Checks if a failed flutter:waitFor or flutter:waitForAbsent only timed out.</b>
+     * <p>The appium-flutter-driver reports a wait that timed out as an unknown error with a timeout message, so the raw message is checked
+     * besides the exception type.</p>
+     *
+     * @param e the exception of the wait command.
+     * @return true if the condition was just not met in time.
+     */
+    static boolean isTimeout(WebDriverException e) {
+        if (e instanceof TimeoutException || e instanceof NoSuchElementException) {
+            return true;
+        }
+        String message = e.getRawMessage();
+        return message != null && message.toLowerCase().contains("timeout");
+    }
+
+    private static Map<String, String> finder(String finderType, String... keyValues) {
+        Map<String, String> finder = new LinkedHashMap<>();
+        finder.put("finderType", finderType);
+        for (int i = 0; i < keyValues.length; i += 2) {
+            finder.put(keyValues[i], keyValues[i + 1]);
+        }
+        return finder;
+    }
+
+    private static String toJson(Map<String, String> finder) {
+        try {
+            return objectMapper.writeValueAsString(finder);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Could not serialize Flutter finder " + finder, e);
+        }
+    }
+
+    /**
+     * <b>Parses the JSON of a decoded finder.</b>
+     *
+     * @param json the finder JSON.
+     * @return the finder map.
+     */
+    static Map<String, String> fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<LinkedHashMap<String, String>>() {
+            });
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Could not parse Flutter finder " + json, e);
+        }
+    }
+}
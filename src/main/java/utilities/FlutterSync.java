@@ -0,0 +1,86 @@
+package utilities;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.Map;
+
+import static common.AppiumUtils.logInfo;
+import static common.AppiumUtils.logWarning;
+import static common.Core.flutterFrameSync;
+
+/**
+ * <b>Synchronises with the Flutter engine instead of polling the screen.</b>
+ * <p>The flutter_driver extension can block until the first frame is rasterized, until no frame is scheduled and until no transient
+ * callbacks (animations) are running. These waits return as soon as the app is settled, without repeated lookups. With the
+ * <code>flutterFrameSync</code> config enabled, {@link #settle} runs after every tap, swipe and scroll.</p>
+ */
+public class FlutterSync {
+
+    private FlutterSync() {
+    }
+
+    public static boolean isEnabled() {
+        return flutterFrameSync;
+    }
+
+    /**
+     * <b>Waits until the app has rendered its first frame.</b>
+     *
+     * @param driver the AppiumDriver instance with the flutter context.
+     */
+    public static void waitForFirstFrame(AppiumDriver driver) {
+        run(driver, "first frame", () -> driver.executeScript("flutter:waitForFirstFrame"));
+    }
+
+    /**
+     * <b>Waits until no frame is scheduled.</b>
+     *
+     * @param driver the AppiumDriver instance with the flutter context.
+     */
+    public static void waitForNoPendingFrame(AppiumDriver driver) {
+        waitForCondition(driver, "NoPendingFrameCondition");
+    }
+
+    /**
+     * <b>Waits until no transient callbacks, e.g. animations, are running.</b>
+     *
+     * @param driver the AppiumDriver instance with the flutter context.
+     */
+    public static void waitForNoTransientCallbacks(AppiumDriver driver) {
+        waitForCondition(driver, "NoTransientCallbacksCondition");
+    }
+
+    /**
+     * <b>Waits until animations have finished and no frame is pending, if frame sync is enabled.</b>
+     *
+     * @param driver the AppiumDriver instance with the flutter context.
+     */
+    public static void settle(AppiumDriver driver) {
+        if (!isEnabled()) {
+            return;
+        }
+        waitForNoTransientCallbacks(driver);
+        waitForNoPendingFrame(driver);
+    }
+
+    private static void waitForCondition(AppiumDriver driver, String conditionName) {
+        run(driver, conditionName, () -> driver.executeScript("flutter:waitForCondition", Map.of("conditionName", conditionName)));
+    }
+
+    private static void run(AppiumDriver driver, String condition, Runnable command) {
+        long start = System.nanoTime();
+        try {
+            ContextManager.ensure(driver, ContextManager.FLUTTER);
+            command.run();
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            if (millis > 1000) {
+                logInfo("Flutter " + condition + " reached after " + millis + " ms");
+            }
+        } catch (WebDriverException e) {
+            logWarning("Could not wait for Flutter " + condition + " | " + e.getMessage());
+        } finally {
+            TimeoutManager.recordWait(System.nanoTime() - start);
+        }
+    }
+}
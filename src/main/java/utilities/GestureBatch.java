@@ -0,0 +1,228 @@
+package utilities;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.interactions.Interaction;
+import org.openqa.selenium.interactions.Pause;
+import org.openqa.selenium.interactions.PointerInput;
+import org.openqa.selenium.interactions.Sequence;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static common.AppiumUtils.logInfo;
+
+/**
+ * <b>Queues several touch gestures and sends them to the server in one <code>perform</code> call.</b>
+ * <p>W3C actions run the sequences of all input sources tick by tick in parallel. To run queued gestures one after another, every finger gets
+ * zero-length pauses for the ticks of the gestures it does not take part in. Multi-finger gestures, e.g. a pinch, use several fingers in the
+ * same ticks.</p>
+ * <p>The element cache is invalidated and the Flutter settle step runs once after the batch instead of after every gesture. An optional
+ * verification checks the end state once. The round trips saved compared with one <code>perform</code> per gesture are counted.</p>
+ */
+public class GestureBatch {
+
+    private static long batches;
+    private static long roundTripsSaved;
+
+    private final AppiumDriver driver;
+    private final List<PointerInput> fingers = new ArrayList<>();
+    private final List<Map<Integer, List<Interaction>>> gestures = new ArrayList<>();
+    private BooleanSupplier verification;
+
+    public GestureBatch(AppiumDriver driver) {
+        this.driver = driver;
+    }
+
+    private PointerInput finger(int index) {
+        while (fingers.size() <= index) {
+            fingers.add(new PointerInput(PointerInput.Kind.TOUCH, "finger" + (fingers.size() + 1)));
+        }
+        return fingers.get(index);
+    }
+
+    /**
+     * <b>Queues a tap at a point of the viewport.</b>
+     *
+     * @param x the X coordinate.
+     * @param y the Y coordinate.
+     * @return this batch.
+     */
+    public GestureBatch tap(int x, int y) {
+        PointerInput finger = finger(0);
+        List<Interaction> actions = new ArrayList<>();
+        actions.add(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), x, y));
+        actions.add(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
+        actions.add(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+        return add(Map.of(0, actions));
+    }
+
+    /**
+     * <b>Queues a one-finger swipe.</b>
+     *
+     * @param startX   the starting X coordinate.
+     * @param startY   the starting Y coordinate.
+     * @param endX     the ending X coordinate.
+     * @param endY     the ending Y coordinate.
+     * @param duration the duration of the move.
+     * @return this batch.
+     */
+    public GestureBatch swipe(int startX, int startY, int endX, int endY, Duration duration) {
+        return multiSwipe(new Point[]{new Point(startX, startY)}, new Point[]{new Point(endX, endY)}, duration);
+    }
+
+    /**
+     * <b>Queues a swipe with several fingers moving at the same time.</b>
+     *
+     * @param starts   the starting point of each finger.
+     * @param ends     the ending point of each finger.
+     * @param duration the duration of the move.
+     * @return this batch.
+     */
+    public GestureBatch multiSwipe(Point[] starts, Point[] ends, Duration duration) {
+        Map<Integer, List<Interaction>> gesture = new HashMap<>();
+        for (int i = 0; i < starts.length; i++) {
+            PointerInput finger = finger(i);
+            List<Interaction> actions = new ArrayList<>();
+            actions.add(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), starts[i].getX(), starts[i].getY()));
+            actions.add(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
+            actions.add(finger.createPointerMove(duration, PointerInput.Origin.viewport(), ends[i].getX(), ends[i].getY()));
+            actions.add(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+            gesture.put(i, actions);
+        }
+        return add(gesture);
+    }
+
+    /**
+     * <b>Queues a horizontal two-finger pinch around a center point.</b>
+     *
+     * @param center       the center of the pinch.
+     * @param fromDistance the distance between the fingers at the start.
+     * @param toDistance   the distance between the fingers at the end; larger than fromDistance zooms in.
+     * @param duration     the duration of the move.
+     * @return this batch.
+     */
+    public GestureBatch pinch(Point center, int fromDistance, int toDistance, Duration duration) {
+        return multiSwipe(
+                new Point[]{center.moveBy(-fromDistance / 2, 0), center.moveBy(fromDistance / 2, 0)},
+                new Point[]{center.moveBy(-toDistance / 2, 0), center.moveBy(toDistance / 2, 0)},
+                duration);
+    }
+
+    /**
+     * <b>Queues a pause between gestures, e.g. to let a carousel snap into place.</b>
+     *
+     * @param duration the duration of the pause.
+     * @return this batch.
+     */
+    public GestureBatch pause(Duration duration) {
+        List<Interaction> actions = new ArrayList<>();
+        actions.add(new Pause(finger(0), duration));
+        return add(Map.of(0, actions));
+    }
+
+    /**
+     * <b>Sets a check of the end state, run once after all gestures were performed.</b>
+     *
+     * @param verification the check, returning true if the end state is as expected.
+     * @return this batch.
+     */
+    public GestureBatch verifyAfter(BooleanSupplier verification) {
+        this.verification = verification;
+        return this;
+    }
+
+    private GestureBatch add(Map<Integer, List<Interaction>> gesture) {
+        gestures.add(gesture);
+        return this;
+    }
+
+    /**
+     * <b>Returns the number of queued gestures, pauses included.</b>
+     *
+     * @return the number of gestures.
+     */
+    public int size() {
+        return gestures.size();
+    }
+
+    /**
+     * <b>Sends all queued gestures in one perform call and runs the verification.</b>
+     *
+     * @return the result of the verification, true if none is set.
+     */
+    public boolean perform() {
+        if (gestures.isEmpty()) {
+            return verification == null || verification.getAsBoolean();
+        }
+        List<Sequence> sequences = new ArrayList<>();
+        for (int index = 0; index < fingers.size(); index++) {
+            PointerInput finger = fingers.get(index);
+            Sequence sequence = new Sequence(finger, 0);
+            for (Map<Integer, List<Interaction>> gesture : gestures) {
+                List<Interaction> actions = gesture.getOrDefault(index, List.of());
+                for (Interaction action : actions) {
+                    sequence.addAction(action);
+                }
+                // Keep the fingers tick-aligned, so the next gesture starts after this one on every finger
+                for (int tick = actions.size(); tick < ticks(gesture); tick++) {
+                    sequence.addAction(new Pause(finger, Duration.ZERO));
+                }
+            }
+            sequences.add(sequence);
+        }
+
+        ContextManager.ensure(driver, ContextManager.NATIVE_APP);
+        driver.perform(sequences);
+        ElementCache.invalidateScreen();
+        FlutterSync.settle(driver);
+
+        int saved = countPerforms() - 1;
+        synchronized (GestureBatch.class) {
+            batches++;
+            roundTripsSaved += saved;
+        }
+        if (saved > 0) {
+            logInfo("Performed " + gestures.size() + " gestures in one request | Round trips saved: " + saved);
+        }
+        return verification == null || verification.getAsBoolean();
+    }
+
+    private static int ticks(Map<Integer, List<Interaction>> gesture) {
+        int ticks = 0;
+        for (List<Interaction> actions : gesture.values()) {
+            ticks = Math.max(ticks, actions.size());
+        }
+        return ticks;
+    }
+
+    /**
+     * <b>Counts the perform calls the gestures would need on their own; pauses would be client-side sleeps.</b>
+     *
+     * @return the number of perform calls.
+     */
+    private int countPerforms() {
+        int performs = 0;
+        for (Map<Integer, List<Interaction>> gesture : gestures) {
+            if (!(gesture.size() == 1 && gesture.get(0) != null && gesture.get(0).size() == 1 && gesture.get(0).get(0) instanceof Pause)) {
+                performs++;
+            }
+        }
+        return Math.max(performs, 1);
+    }
+
+    /**
+     * <b>Logs the number of batches and round trips saved, and resets the counters.</b>
+     */
+    public static synchronized void logStatistics() {
+        if (roundTripsSaved > 0) {
+            logInfo("Gesture batches: " + batches + " | Round trips saved: " + roundTripsSaved);
+        }
+        batches = 0;
+        roundTripsSaved = 0;
+    }
+}
@@ -0,0 +1,213 @@
+package utilities;
+
+import org.w3c.dom.Element;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static common.AppiumUtils.logError;
+import static common.AppiumUtils.logInfo;
+
+/**
+ * <b>Collects per-alias locator costs and writes a ranked "most expensive locators" report.</b>
+ * <p>The proxies record the latency of every find request, and <code>AppiumUtils.findElement</code> records the duration, the number of
+ * polling attempts and the outcome of every wait. At the end of the suite the aliases are ranked by the total time spent on them and written
+ * to <code>locator-profile.html</code> next to the Extent report. Where a page snapshot showed that an XPath locator points to a node with a
+ * unique content-desc or resource-id, a cheaper strategy is suggested.</p>
+ */
+public class LocatorProfiler {
+
+    private static final Map<String, LocatorStats> statsByAlias = new LinkedHashMap<>();
+
+    private LocatorProfiler() {
+    }
+
+    /**
+     * <b>Per-alias counters.</b>
+     */
+    private static class LocatorStats {
+        final CompiledLocator locator;
+        final List<Long> findNanos = new ArrayList<>();
+        long findFailures;
+        long waits;
+        long waitNanos;
+        long polls;
+        long waitFailures;
+        String suggestion;
+        boolean suggestionChecked;
+
+        LocatorStats(CompiledLocator locator) {
+            this.locator = locator;
+        }
+
+        long totalNanos() {
+            long findTotal = 0;
+            for (long nanos : findNanos) {
+                findTotal += nanos;
+            }
+            // Finds inside a wait are part of the wait time, so take whichever covers more
+            return Math.max(findTotal, waitNanos);
+        }
+
+        long percentile(int percent) {
+            if (findNanos.isEmpty()) {
+                return 0;
+            }
+            List<Long> sorted = new ArrayList<>(findNanos);
+            Collections.sort(sorted);
+            int index = (int) Math.ceil(percent / 100.0 * sorted.size()) - 1;
+            return sorted.get(Math.max(index, 0));
+        }
+    }
+
+    private static LocatorStats stats(CompiledLocator locator) {
+        return statsByAlias.computeIfAbsent(locator.alias() + " | " + locator.description(), key -> new LocatorStats(locator));
+    }
+
+    /**
+     * <b>Records a single find request made for an aliased element.</b>
+     *
+     * @param locator the compiled locator that was looked up.
+     * @param nanos   the duration of the request.
+     * @param found   true if the element was found.
+     */
+    public static synchronized void recordFind(CompiledLocator locator, long nanos, boolean found) {
+        LocatorStats stats = stats(locator);
+        stats.findNanos.add(nanos);
+        if (!found) {
+            stats.findFailures++;
+        }
+    }
+
+    /**
+     * <b>Records an explicit wait for an aliased element.</b>
+     *
+     * @param locator the compiled locator that was waited for.
+     * @param nanos   the duration of the wait.
+     * @param polls   the number of polling attempts.
+     * @param found   true if the element was found before the timeout.
+     */
+    public static synchronized void recordWait(CompiledLocator locator, long nanos, int polls, boolean found) {
+        LocatorStats stats = stats(locator);
+        stats.waits++;
+        stats.waitNanos += nanos;
+        stats.polls += polls;
+        if (!found) {
+            stats.waitFailures++;
+        }
+    }
+
+    /**
+     * <b>Checks if a page snapshot should be captured to look for a cheaper strategy for an XPath locator.</b>
+     * <p>This returns true only once per alias. An XPath without a unique content-desc or resource-id never gets a suggestion, so asking
+     * again would capture a full page source on every wait for it.</p>
+     *
+     * @param locator the compiled locator.
+     * @return true the first time it is asked for an XPath locator without a suggestion.
+     */
+    public static synchronized boolean needsSuggestion(CompiledLocator locator) {
+        if (!"xpath".equals(locator.strategy())) {
+            return false;
+        }
+        LocatorStats stats = stats(locator);
+        if (stats.suggestion != null || stats.suggestionChecked) {
+            return false;
+        }
+        stats.suggestionChecked = true;
+        return true;
+    }
+
+    /**
+     * <b>Looks for cheaper strategies for the profiled XPath locators in an already captured page snapshot.</b>
+     * <p>A content-desc or resource-id is only suggested when it identifies the node uniquely in the snapshot.</p>
+     *
+     * @param snapshot the page snapshot.
+     */
+    public static synchronized void suggestFrom(PageSnapshot snapshot) {
+        for (LocatorStats stats : statsByAlias.values()) {
+            if (stats.suggestion != null || !"xpath".equals(stats.locator.strategy())) {
+                continue;
+            }
+            Element node = snapshot.find(stats.locator);
+            if (node == null) {
+                continue;
+            }
+            String alias = stats.locator.alias();
+            String contentDesc = node.getAttribute("content-desc");
+            if (contentDesc.isEmpty()) {
+                contentDesc = node.getAttribute("name"); // XCUITest exposes the accessibility id as name
+            }
+            String resourceId = node.getAttribute("resource-id");
+            if (!contentDesc.isEmpty() && snapshot.count(CompiledLocator.of("accessibility", contentDesc, alias)) == 1) {
+                stats.suggestion = "accessibility = \"" + contentDesc + "\"";
+            } else if (!resourceId.isEmpty() && snapshot.count(CompiledLocator.of("id", resourceId, alias)) == 1) {
+                stats.suggestion = "id = \"" + resourceId + "\"";
+            }
+        }
+    }
+
+    /**
+     * <b>Writes the ranked locator cost report and resets the collected data.</b>
+     *
+     * @param reportDirPath the directory of the Extent report.
+     */
+    public static synchronized void writeReport(String reportDirPath) {
+        if (statsByAlias.isEmpty()) {
+            return;
+        }
+        List<LocatorStats> ranked = new ArrayList<>(statsByAlias.values());
+        ranked.sort(Comparator.comparingLong(LocatorStats::totalNanos).reversed());
+
+        StringBuilder html = new StringBuilder();
+        html.append("<html><head><meta charset='UTF-8'><title>Most expensive locators</title>")
+                .append("<style>body{font-family:sans-serif;font-size:13px}table{border-collapse:collapse}")
+                .append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:left}th{background:#eee}</style></head><body>")
+                .append("<h2>Most expensive locators</h2><table><tr>")
+                .append("<th>#</th><th>Alias</th><th>Strategy</th><th>Total ms</th><th>Finds</th><th>p50 ms</th><th>p95 ms</th><th>Max ms</th>")
+                .append("<th>Find failures</th><th>Waits</th><th>Polls</th><th>Wait failures</th><th>Locator</th><th>Cheaper strategy</th></tr>");
+        int rank = 1;
+        for (LocatorStats stats : ranked) {
+            html.append("<tr><td>").append(rank++).append("</td>")
+                    .append("<td>").append(escape(stats.locator.alias())).append("</td>")
+                    .append("<td>").append(stats.locator.strategy()).append("</td>")
+                    .append("<td>").append(millis(stats.totalNanos())).append("</td>")
+                    .append("<td>").append(stats.findNanos.size()).append("</td>")
+                    .append("<td>").append(millis(stats.percentile(50))).append("</td>")
+                    .append("<td>").append(millis(stats.percentile(95))).append("</td>")
+                    .append("<td>").append(millis(stats.percentile(100))).append("</td>")
+                    .append("<td>").append(stats.findFailures).append("</td>")
+                    .append("<td>").append(stats.waits).append("</td>")
+                    .append("<td>").append(stats.polls).append("</td>")
+                    .append("<td>").append(stats.waitFailures).append("</td>")
+                    .append("<td>").append(escape(stats.locator.description())).append("</td>")
+                    .append("<td>").append(stats.suggestion == null ? "" : escape(stats.suggestion)).append("</td></tr>");
+        }
+        html.append("</table></body></html>");
+
+        File report = new File(reportDirPath, "locator-profile.html");
+        try {
+            Files.createDirectories(report.getParentFile().toPath());
+            Files.write(report.toPath(), html.toString().getBytes(StandardCharsets.UTF_8));
+            logInfo("Locator profile written to " + report.getPath() + " | Most expensive: '" + ranked.get(0).locator.alias()
+                    + "' (" + millis(ranked.get(0).totalNanos()) + " ms)");
+        } catch (Exception e) {
+            logError("[" + e.getClass().getSimpleName() + "] | Message --> " + e.getMessage());
+        }
+        statsByAlias.clear();
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(nanos / 1_000_000);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
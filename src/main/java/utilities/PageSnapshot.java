@@ -0,0 +1,244 @@
+package utilities;
+
+import io.appium.java_client.AppiumDriver;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.Set;
+
+import static common.AppiumUtils.logWarning;
+import static common.Core.locatorSuggestions;
+
+/**
+ * <b>An in-memory copy of the page source that locators can be evaluated against locally.</b>
+ * <p>One <code>driver.getPageSource()</code> call is parsed into a DOM tree. XPath, accessibility id, id and className locators are then
+ * evaluated without further requests to the Appium server. Both UiAutomator2 and XCUITest page sources are supported; on iOS the
+ * accessibility id and id strategies are matched against the <code>name</code> attribute.</p>
+ */
+public class PageSnapshot {
+
+    private final Document document;
+    private final String pageSource;
+    private final boolean ios;
+    private final XPath xpath = XPathFactory.newInstance().newXPath();
+
+    private PageSnapshot(Document document, String pageSource) {
+        this.document = document;
+        this.pageSource = pageSource;
+        this.ios = document.getDocumentElement().getNodeName().equals("AppiumAUT");
+    }
+
+    /**
+     * <b>Fetches the page source once and parses it into a snapshot.</b>
+     * <p>With the <code>locatorSuggestions</code> config enabled, the snapshot is also searched for cheaper strategies of the profiled
+     * XPath locators.</p>
+     *
+     * @param driver the AppiumDriver instance to fetch the page source from.
+     * @return the parsed snapshot.
+     */
+    public static PageSnapshot capture(AppiumDriver driver) {
+        String source = driver.getPageSource();
+        ElementCache.observeScreen(null, source);
+        PageSnapshot snapshot = parse(source);
+        if (locatorSuggestions) {
+            LocatorProfiler.suggestFrom(snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * <b>Parses a page source into a snapshot.</b>
+     *
+     * @param pageSource the page source XML.
+     * @return the parsed snapshot.
+     * @throws IllegalStateException if the page source is not valid XML.
+     */
+    public static PageSnapshot parse(String pageSource) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(pageSource)));
+            return new PageSnapshot(document, pageSource);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not parse page source: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * <b>Returns the raw page source of this snapshot.</b>
+     *
+     * @return the page source XML.
+     */
+    public String getPageSource() {
+        return pageSource;
+    }
+
+    /**
+     * <b>Checks if the locator strategy can be evaluated against a snapshot.</b>
+     *
+     * @param locator the compiled locator.
+     * @return true if any candidate is an xpath, accessibility, id, name or className locator.
+     */
+    public static boolean supports(CompiledLocator locator) {
+        for (CompiledLocator candidate : locator.candidates()) {
+            if (toXpath(candidate) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <b>Finds the first node matching the locator in this snapshot.</b>
+     *
+     * @param locator the compiled locator.
+     * @return the first node matched by any of the candidate strategies, or null if nothing matches or no strategy is supported.
+     */
+    public Element find(CompiledLocator locator) {
+        for (CompiledLocator candidate : locator.candidates()) {
+            String expression = toXpath(candidate, ios);
+            if (expression == null) {
+                continue;
+            }
+            try {
+                Node node = (Node) xpath.evaluate(expression, document, XPathConstants.NODE);
+                if (node instanceof Element) {
+                    return (Element) node;
+                }
+            } catch (Exception e) {
+                logWarning("Could not evaluate " + candidate.description() + " against the page snapshot | " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <b>Counts the nodes matching the locator in this snapshot.</b>
+     *
+     * @param locator the compiled locator.
+     * @return the number of matching nodes, 0 if the strategy is not supported.
+     */
+    public int count(CompiledLocator locator) {
+        String expression = toXpath(locator, ios);
+        if (expression == null) {
+            return 0;
+        }
+        try {
+            return ((Double) xpath.evaluate("count(" + expression + ")", document, XPathConstants.NUMBER)).intValue();
+        } catch (Exception e) {
+            logWarning("Could not evaluate " + locator.description() + " against the page snapshot | " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * <b>Checks if the locator matches a displayed node in this snapshot.</b>
+     *
+     * @param locator the compiled locator.
+     * @return true if a matching node exists and is not marked as hidden.
+     */
+    public boolean isDisplayed(CompiledLocator locator) {
+        Element node = find(locator);
+        return node != null && isShown(node);
+    }
+
+    /**
+     * <b>Checks if a node is not marked as hidden, by <code>displayed</code> (UiAutomator2) or <code>visible</code> (XCUITest).</b>
+     */
+    private static boolean isShown(Element node) {
+        return !"false".equals(node.getAttribute("displayed")) && !"false".equals(node.getAttribute("visible"));
+    }
+
+    /**
+     * <b>Reads an attribute of the first node matching the locator.</b>
+     *
+     * @param locator   the compiled locator.
+     * @param attribute the attribute name, e.g. content-desc or text.
+     * @return the attribute value, or null if no node matches.
+     */
+    public String getAttribute(CompiledLocator locator, String attribute) {
+        Element node = find(locator);
+        return node == null ? null : node.getAttribute(attribute);
+    }
+
+    /**
+     * <b>Collects the labels of all displayed nodes in this snapshot.</b>
+     *
+     * @return the non-empty text, content-desc and name values (label and value on iOS).
+     */
+    public Set<String> labels() {
+        Set<String> labels = new HashSet<>();
+        NodeList nodes = document.getElementsByTagName("*");
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Element node = (Element) nodes.item(i);
+            if (!isShown(node)) {
+                continue;
+            }
+            for (String attribute : ios ? new String[]{"name", "label", "value"} : new String[]{"text", "content-desc"}) {
+                String label = node.getAttribute(attribute);
+                if (!label.isEmpty()) {
+                    labels.add(label);
+                }
+            }
+        }
+        return labels;
+    }
+
+    static String toXpath(CompiledLocator locator) {
+        return toXpath(locator, false);
+    }
+
+    /**
+     * <b>Translates a compiled locator into an XPath expression for the page source.</b>
+     *
+     * @param locator the compiled locator.
+     * @param ios     true for an XCUITest page source.
+     * @return the XPath expression, or null if the strategy cannot be evaluated locally.
+     */
+    static String toXpath(CompiledLocator locator, boolean ios) {
+        String value = locator.value();
+        switch (locator.strategy()) {
+            case "xpath":
+                return value;
+            case "name":
+                return "//*[@name=" + literal(value) + "]";
+            case "accessibility":
+                return ios ? "//*[@name=" + literal(value) + "]" : "//*[@content-desc=" + literal(value) + "]";
+            case "id":
+                if (ios) {
+                    return "//*[@name=" + literal(value) + "]";
+                }
+                return value.contains(":") ? "//*[@resource-id=" + literal(value) + "]"
+                        : "//*[substring-after(@resource-id, ':id/')=" + literal(value) + "]";
+            case "className":
+                return "//" + value;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * <b>Quotes a value as an XPath string literal.</b>
+     *
+     * @param value the value to quote.
+     * @return the XPath literal, using concat() when the value contains both quote types.
+     */
+    static String literal(String value) {
+        if (!value.contains("'")) {
+            return "'" + value + "'";
+        }
+        if (!value.contains("\"")) {
+            return "\"" + value + "\"";
+        }
+        return "concat('" + value.replace("'", "', \"'\", '") + "')";
+    }
+}
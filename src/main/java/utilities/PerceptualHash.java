@@ -0,0 +1,96 @@
+package utilities;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * <b>Computes difference hashes (dHash) of screenshots to tell whether the screen visibly changed.</b>
+ * <p>The image is scaled down to 9x8 grayscale cells; each of the 64 bits tells whether a cell is brighter than its right neighbour. Every
+ * cell is the average of all source pixels it covers, so small changes such as the status bar clock flip few or no bits, and two
+ * screenshots within a small Hamming distance show the same screen. The hash only sees coarse changes: a few typed characters may not flip
+ * a single bit.</p>
+ */
+public class PerceptualHash {
+
+    private static final int WIDTH = 9;
+    private static final int HEIGHT = 8;
+
+    private PerceptualHash() {
+    }
+
+    /**
+     * <b>Computes the difference hash of an encoded image.</b>
+     *
+     * @param image the PNG or JPEG bytes.
+     * @return the 64-bit hash.
+     * @throws IOException if the image cannot be decoded.
+     */
+    public static long dHash(byte[] image) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(image));
+        if (source == null) {
+            throw new IOException("Unsupported image format");
+        }
+        return dHash(source);
+    }
+
+    /**
+     * <b>Computes the difference hash of a decoded image.</b>
+     *
+     * @param source the image.
+     * @return the 64-bit hash.
+     */
+    public static long dHash(BufferedImage source) {
+        double[][] cells = averageLuminance(source);
+        long hash = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH - 1; x++) {
+                hash <<= 1;
+                if (cells[y][x] > cells[y][x + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * <b>Scales an image down to the hash grid by area averaging.</b>
+     * <p>Unlike a single interpolated drawImage, which samples only a few source pixels per cell, every pixel contributes to its cell.</p>
+     */
+    private static double[][] averageLuminance(BufferedImage source) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double[][] sums = new double[HEIGHT][WIDTH];
+        long[][] counts = new long[HEIGHT][WIDTH];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            source.getRGB(0, y, width, 1, row, 0, width);
+            int cellY = (int) ((long) y * HEIGHT / height);
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                int cellX = (int) ((long) x * WIDTH / width);
+                sums[cellY][cellX] += 0.299 * ((rgb >> 16) & 0xff) + 0.587 * ((rgb >> 8) & 0xff) + 0.114 * (rgb & 0xff);
+                counts[cellY][cellX]++;
+            }
+        }
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                sums[y][x] = counts[y][x] == 0 ? 0 : sums[y][x] / counts[y][x];
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * <b>Counts the bits in which two hashes differ.</b>
+     *
+     * @param first  the first hash.
+     * @param second the second hash.
+     * @return the Hamming distance, 0 for identical hashes.
+     */
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+}
@@ -0,0 +1,93 @@
+package utilities;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * <b>Rebuilds a complete Extent report from the event log of a streamed run.</b>
+ * <p>Usage: <code>ReportRebuilder &lt;events.jsonl&gt; [output.html]</code>. The output defaults to <code>report-full.html</code> next to the
+ * event log, so the relative screenshot links keep working. Runs cut short by a crash are rebuilt up to the last flushed event.</p>
+ */
+public class ReportRebuilder {
+
+    private static final File SPARK_CONFIG = new File("src/main/resources/reporting/spark-config.xml");
+
+    private ReportRebuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: ReportRebuilder <events.jsonl> [output.html]");
+            return;
+        }
+        File events = new File(args[0]);
+        File output = args.length > 1 ? new File(args[1]) : new File(events.getAbsoluteFile().getParentFile(), "report-full.html");
+        int tests = rebuild(events, output);
+        System.out.println("Rebuilt " + tests + " test(s) into " + output.getPath());
+    }
+
+    /**
+     * <b>Replays an event log into a new Extent report.</b>
+     *
+     * @param events the event log written by {@link ReportStream}.
+     * @param output the HTML file to write.
+     * @return the number of tests in the report.
+     * @throws IOException if the event log cannot be read or the report configuration cannot be loaded.
+     */
+    public static int rebuild(File events, File output) throws IOException {
+        ExtentSparkReporter reporter = new ExtentSparkReporter(output);
+        if (SPARK_CONFIG.isFile()) {
+            reporter.loadXMLConfig(SPARK_CONFIG);
+        }
+        ExtentReports extentReports = new ExtentReports();
+        extentReports.attachReporter(reporter);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        ExtentTest test = null;
+        int tests = 0;
+        try (BufferedReader reader = Files.newBufferedReader(events.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode event;
+                try {
+                    event = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    break; // a line cut off by a crash ends the log
+                }
+                switch (event.path("type").asText()) {
+                    case "start":
+                        test = extentReports.createTest(event.path("test").asText())
+                                .assignAuthor(event.path("author").asText())
+                                .assignDevice(event.path("device").asText());
+                        for (JsonNode category : event.path("categories")) {
+                            test.assignCategory(category.asText());
+                        }
+                        tests++;
+                        break;
+                    case "step":
+                        if (test != null) {
+                            test.log(Status.valueOf(event.path("status").asText()), event.path("html").asText());
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        extentReports.flush();
+        return tests;
+    }
+}
@@ -0,0 +1,144 @@
+package utilities;
+
+import com.aventstack.extentreports.Status;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static common.AppiumUtils.logError;
+import static common.AppiumUtils.logInfo;
+import static common.Core.reportFlushEvery;
+import static common.Core.reportStreaming;
+
+/**
+ * <b>Streams the report as it is written into an on-disk event log, one JSON object per line.</b>
+ * <p>With the <code>reportStreaming</code> config enabled, every test start, report step and test end is appended to
+ * <code>events.jsonl</code> in the report folder. The log is flushed at the end of every test and at least every two seconds, so a crash
+ * loses at most the running test. {@link ReportRebuilder} rebuilds a complete HTML report from the log offline.</p>
+ * <p>To keep the heap bounded, the HTML report is written in parts: after every <code>reportFlushEvery</code> tests the current part is
+ * flushed and the next tests go into a new ExtentReports instance (<code>report-2.html</code>, <code>report-3.html</code>, ...), so the
+ * model of finished parts can be garbage collected.</p>
+ */
+public class ReportStream {
+
+    public static final String EVENT_LOG = "events.jsonl";
+    private static final long FLUSH_INTERVAL_MILLIS = 2000;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static BufferedWriter writer;
+    private static String currentTest = "";
+    private static long lastFlush;
+    private static int finishedTests;
+
+    private ReportStream() {
+    }
+
+    /**
+     * <b>Checks if the streaming report mode is switched on in the configuration.</b>
+     *
+     * @return true if events are written and the report is split into parts.
+     */
+    public static boolean isEnabled() {
+        return reportStreaming;
+    }
+
+    /**
+     * <b>Records the start of a test.</b>
+     *
+     * @param testName   the name of the test.
+     * @param author     the author assigned in the report.
+     * @param device     the device assigned in the report.
+     * @param categories the groups of the test.
+     */
+    public static synchronized void testStarted(String testName, String author, String device, String... categories) {
+        currentTest = testName;
+        Map<String, Object> event = event("start");
+        event.put("author", author);
+        event.put("device", device);
+        event.put("categories", Arrays.asList(categories));
+        write(event, false);
+    }
+
+    /**
+     * <b>Records a step logged to the report of the current test.</b>
+     *
+     * @param status the status of the step.
+     * @param html   the HTML of the step as logged to the report.
+     */
+    public static synchronized void step(Status status, String html) {
+        Map<String, Object> event = event("step");
+        event.put("status", status.name());
+        event.put("html", html);
+        write(event, false);
+    }
+
+    /**
+     * <b>Records the end of the current test and flushes the event log.</b>
+     *
+     * @param status the final status of the test.
+     * @return true if the report part is full and a new part should be started.
+     */
+    public static synchronized boolean testFinished(Status status) {
+        Map<String, Object> event = event("end");
+        event.put("status", status.name());
+        write(event, true);
+        finishedTests++;
+        return isEnabled() && reportFlushEvery > 0 && finishedTests % reportFlushEvery == 0;
+    }
+
+    /**
+     * <b>Flushes and closes the event log, called when the test context finishes.</b>
+     * <p>Logs where the event log is and how to rebuild a single HTML report from it.</p>
+     */
+    public static synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+            String eventLog = new File(ExtentReporterNG.reportDirPath, EVENT_LOG).getPath();
+            logInfo("Report events written to " + eventLog + ". The HTML report is split into parts; to get a single report run: "
+                    + "mvn -q compile exec:java -Dexec.mainClass=utilities.ReportRebuilder -Dexec.args=\"" + eventLog + "\"");
+        } catch (IOException e) {
+            logError("Could not close the report event log | [" + e.getClass().getSimpleName() + "] " + e.getMessage());
+        } finally {
+            writer = null;
+        }
+    }
+
+    private static Map<String, Object> event(String type) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", type);
+        event.put("test", currentTest);
+        event.put("time", System.currentTimeMillis());
+        return event;
+    }
+
+    private static void write(Map<String, Object> event, boolean flush) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                File log = new File(ExtentReporterNG.reportDirPath, EVENT_LOG);
+                log.getParentFile().mkdirs();
+                writer = Files.newBufferedWriter(log.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(objectMapper.writeValueAsString(event));
+            writer.newLine();
+            if (flush || System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL_MILLIS) {
+                writer.flush();
+                lastFlush = System.currentTimeMillis();
+            }
+        } catch (IOException e) {
+            logError("Could not write report event | [" + e.getClass().getSimpleName() + "] " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package utilities;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * <b>Encodes report screenshots as compressed JPEG images and downscaled thumbnails.</b>
+ * <p>Screenshots arrive as lossless PNG at device resolution. The report keeps a JPEG at <code>screenshotJpegQuality</code> for the full
+ * view and a thumbnail no larger than <code>thumbnailSize</code> pixels for the inline preview, so opening a report only loads the small
+ * images. The encoding runs on the {@link ScreenshotPipeline} workers.</p>
+ */
+public class ScreenshotEncoder {
+
+    private static final String THUMBNAIL_SUFFIX = "_thumb.jpg";
+
+    private ScreenshotEncoder() {
+    }
+
+    /**
+     * <b>Decodes the PNG bytes returned by the driver.</b>
+     *
+     * @param png the screenshot bytes.
+     * @return the image without alpha channel, ready for JPEG encoding.
+     * @throws IOException if the bytes are not a supported image.
+     */
+    public static BufferedImage decode(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) {
+            throw new IOException("Unsupported image format");
+        }
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        graphics.dispose();
+        return rgb;
+    }
+
+    /**
+     * <b>Encodes an image as JPEG.</b>
+     *
+     * @param image   the image.
+     * @param quality the JPEG quality from 1 to 100.
+     * @return the JPEG bytes.
+     * @throws IOException if the image cannot be encoded.
+     */
+    public static byte[] toJpeg(BufferedImage image, int quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(Math.max(1, Math.min(100, quality)) / 100f);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * <b>Scales an image down so its longer side is at most the given size.</b>
+     *
+     * @param image   the image.
+     * @param maxSize the maximum width and height in pixels.
+     * @return the scaled image, or the image itself if it is already small enough.
+     */
+    public static BufferedImage thumbnail(BufferedImage image, int maxSize) {
+        double scale = Math.min(1.0, (double) maxSize / Math.max(image.getWidth(), image.getHeight()));
+        if (scale >= 1.0) {
+            return image;
+        }
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+        return thumbnail;
+    }
+
+    /**
+     * <b>Returns the path of the thumbnail belonging to a screenshot.</b>
+     *
+     * @param screenshotPath the path of the full screenshot.
+     * @return the thumbnail path, next to the screenshot.
+     */
+    public static String thumbnailOf(String screenshotPath) {
+        int extension = screenshotPath.lastIndexOf('.');
+        return (extension > 0 ? screenshotPath.substring(0, extension) : screenshotPath) + THUMBNAIL_SUFFIX;
+    }
+}
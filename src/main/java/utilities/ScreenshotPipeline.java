@@ -0,0 +1,317 @@
+package utilities;
+
+import org.apache.commons.io.FileUtils;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static common.AppiumUtils.logError;
+import static common.AppiumUtils.logInfo;
+import static common.AppiumUtils.logWarning;
+import static common.Core.screenshotDedupeDistance;
+import static common.Core.screenshotJpegQuality;
+import static common.Core.screenshotQueueSize;
+import static common.Core.screenshotThreads;
+import static common.Core.thumbnailSize;
+
+/**
+ * <b>Writes report screenshots to disk on background threads.</b>
+ * <p>The test thread only captures the screenshot bytes and gets the final path back at once; the report can reference the file before it
+ * exists. Encoding into a JPEG and a thumbnail (see {@link ScreenshotEncoder}) and disk I/O run on <code>screenshotThreads</code> workers.
+ * At most <code>screenshotQueueSize</code> screenshots wait for a worker; when the queue is full the test thread writes the next one itself,
+ * which slows the test down instead of growing memory.</p>
+ * <p>Step screenshots queued with {@link #persistUnlessSimilar} are compared by their {@link PerceptualHash} on the worker as well, so the
+ * test thread never decodes an image.</p>
+ * <p>Pending writes are drained when the test context finishes, see {@link #drain()}. The capture time per step, the write time and the
+ * highest queue depth are logged at that point.</p>
+ */
+public class ScreenshotPipeline {
+
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+    private static final AtomicInteger pending = new AtomicInteger();
+    private static final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private static final AtomicLong captures = new AtomicLong();
+    private static final AtomicLong captureNanos = new AtomicLong();
+    private static final AtomicLong maxCaptureNanos = new AtomicLong();
+    private static final AtomicLong writes = new AtomicLong();
+    private static final AtomicLong writeNanos = new AtomicLong();
+    private static final AtomicLong callerWrites = new AtomicLong();
+    private static final AtomicLong rawBytes = new AtomicLong();
+    private static final AtomicLong writtenBytes = new AtomicLong();
+    private static final AtomicLong similar = new AtomicLong();
+    private static CompletableFuture<Saved> lastSaved = CompletableFuture.completedFuture(null);
+    private static ThreadPoolExecutor executor;
+
+    private ScreenshotPipeline() {
+    }
+
+    private static synchronized ThreadPoolExecutor executor() {
+        if (executor == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            executor = new ThreadPoolExecutor(screenshotThreads, screenshotThreads, 30, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(screenshotQueueSize),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "screenshot-writer-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    /**
+     * <b>Queues a screenshot to be written to its final path.</b>
+     *
+     * @param destination the file path the report references.
+     * @param png         the screenshot bytes as returned by the driver.
+     */
+    public static void persist(String destination, byte[] png) {
+        persist(destination, png, () -> {
+        });
+    }
+
+    /**
+     * <b>Queues a screenshot to be written to its final path and reports a failed write.</b>
+     *
+     * @param destination the file path the report references.
+     * @param png         the screenshot bytes as returned by the driver.
+     * @param onFailure   runs on the worker if the file could not be written.
+     */
+    public static void persist(String destination, byte[] png, Runnable onFailure) {
+        submit(destination, onFailure, () -> write(destination, png));
+    }
+
+    /**
+     * <b>Queues a step screenshot that is not written again if it looks like the last one saved.</b>
+     * <p>The worker compares the {@link PerceptualHash} of the screenshot with the last screenshot saved since {@link #resetSimilarity()}.
+     * If they differ in at most <code>screenshotDedupeDistance</code> bits, the destination is linked to the saved file instead of being
+     * encoded and written. Only a written screenshot becomes the one the next is compared with, so a slowly changing screen is written again
+     * once it has drifted far enough. Screenshots are compared in the order they are queued.</p>
+     *
+     * @param destination the file path the report references.
+     * @param png         the screenshot bytes as returned by the driver.
+     */
+    public static void persistUnlessSimilar(String destination, byte[] png) {
+        persistUnlessSimilar(destination, png, () -> {
+        });
+    }
+
+    /**
+     * <b>Queues a step screenshot like {@link #persistUnlessSimilar(String, byte[])} and reports a failed write.</b>
+     *
+     * @param destination the file path the report references.
+     * @param png         the screenshot bytes as returned by the driver.
+     * @param onFailure   runs on the worker if the file could not be written.
+     */
+    public static void persistUnlessSimilar(String destination, byte[] png, Runnable onFailure) {
+        CompletableFuture<Saved> previous;
+        CompletableFuture<Saved> saved = new CompletableFuture<>();
+        synchronized (ScreenshotPipeline.class) {
+            previous = lastSaved;
+            lastSaved = saved;
+        }
+        submit(destination, onFailure, () -> {
+            Saved reference = null;
+            try {
+                BufferedImage image = decodeOrWriteUnchanged(destination, png);
+                if (image == null) {
+                    return;
+                }
+                long hash = PerceptualHash.dHash(image);
+                Saved last = previous.join();
+                if (last != null && PerceptualHash.distance(hash, last.hash) <= screenshotDedupeDistance && link(last.path, destination)) {
+                    similar.incrementAndGet();
+                    return;
+                }
+                encode(destination, png, image);
+                reference = new Saved(destination, hash);
+            } finally {
+                saved.complete(reference != null ? reference : previous.join());
+            }
+        });
+    }
+
+    /**
+     * <b>Starts a new test: its first step screenshot is not compared with the screenshots of the previous test.</b>
+     */
+    public static synchronized void resetSimilarity() {
+        lastSaved = CompletableFuture.completedFuture(null);
+    }
+
+    private static void submit(String destination, Runnable onFailure, Write write) {
+        pending.incrementAndGet();
+        Thread caller = Thread.currentThread();
+        ThreadPoolExecutor executor = executor();
+        executor.execute(() -> {
+            if (Thread.currentThread() == caller) {
+                callerWrites.incrementAndGet(); // the queue was full, backpressure on the test thread
+            }
+            long start = System.nanoTime();
+            try {
+                write.run();
+            } catch (Exception e) {
+                logError("Could not write screenshot " + destination + " | [" + e.getClass().getSimpleName() + "] " + e.getMessage());
+                onFailure.run();
+            } finally {
+                writes.incrementAndGet();
+                writeNanos.addAndGet(System.nanoTime() - start);
+                if (pending.decrementAndGet() == 0) {
+                    synchronized (pending) {
+                        pending.notifyAll();
+                    }
+                }
+            }
+        });
+        maxQueueDepth.accumulateAndGet(executor.getQueue().size(), Math::max);
+    }
+
+    /**
+     * <b>Encodes a screenshot as JPEG and thumbnail and writes both files.</b>
+     * <p>If the bytes cannot be decoded, they are written unchanged to both paths.</p>
+     */
+    private static void write(String destination, byte[] png) throws IOException {
+        BufferedImage image = decodeOrWriteUnchanged(destination, png);
+        if (image != null) {
+            encode(destination, png, image);
+        }
+    }
+
+    private static BufferedImage decodeOrWriteUnchanged(String destination, byte[] png) throws IOException {
+        try {
+            return ScreenshotEncoder.decode(png);
+        } catch (IOException e) {
+            logWarning("Could not decode screenshot, writing it unchanged | " + e.getMessage());
+            FileUtils.writeByteArrayToFile(new File(destination), png);
+            FileUtils.writeByteArrayToFile(new File(ScreenshotEncoder.thumbnailOf(destination)), png);
+            return null;
+        }
+    }
+
+    private static void encode(String destination, byte[] png, BufferedImage image) throws IOException {
+        byte[] jpeg = ScreenshotEncoder.toJpeg(image, screenshotJpegQuality);
+        byte[] thumbnail = ScreenshotEncoder.toJpeg(ScreenshotEncoder.thumbnail(image, thumbnailSize), screenshotJpegQuality);
+        FileUtils.writeByteArrayToFile(new File(destination), jpeg);
+        FileUtils.writeByteArrayToFile(new File(ScreenshotEncoder.thumbnailOf(destination)), thumbnail);
+        rawBytes.addAndGet(png.length);
+        writtenBytes.addAndGet(jpeg.length + thumbnail.length);
+    }
+
+    /**
+     * <b>Makes a destination and its thumbnail point to an already written screenshot.</b>
+     * <p>Hard links take no extra space; where they are not supported, the files are copied.</p>
+     *
+     * @return false if the files could not be linked or copied and the screenshot must be written.
+     */
+    private static boolean link(String existing, String destination) {
+        try {
+            linkOrCopy(Paths.get(existing), Paths.get(destination));
+            linkOrCopy(Paths.get(ScreenshotEncoder.thumbnailOf(existing)), Paths.get(ScreenshotEncoder.thumbnailOf(destination)));
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            logWarning("Could not link screenshot " + destination + " | " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void linkOrCopy(Path existing, Path link) throws IOException {
+        Files.createDirectories(link.toAbsolutePath().getParent());
+        try {
+            Files.createLink(link, existing);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(existing, link, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * <b>Records how long the test thread spent on one screenshot.</b>
+     *
+     * @param nanos the time from the capture request until the write was queued.
+     */
+    public static void recordCapture(long nanos) {
+        captures.incrementAndGet();
+        captureNanos.addAndGet(nanos);
+        maxCaptureNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * <b>Returns the number of screenshots not yet written.</b>
+     *
+     * @return the number of queued and running writes.
+     */
+    public static int pending() {
+        return pending.get();
+    }
+
+    /**
+     * <b>Waits until all queued screenshots are written, then logs and resets the metrics.</b>
+     */
+    public static void drain() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DRAIN_TIMEOUT_SECONDS);
+        synchronized (pending) {
+            while (pending.get() > 0 && System.nanoTime() < deadline) {
+                try {
+                    pending.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (pending.get() > 0) {
+            logWarning(pending.get() + " screenshot(s) still being written after " + DRAIN_TIMEOUT_SECONDS + " s");
+        }
+        logStatistics();
+    }
+
+    private static void logStatistics() {
+        long captureCount = captures.getAndSet(0);
+        long writeCount = writes.getAndSet(0);
+        if (captureCount == 0 && writeCount == 0) {
+            return;
+        }
+        logInfo(String.format("Screenshots: %d captured, %.0f ms per step (max %.0f ms) | %d written, %.0f ms per write"
+                        + " | Max queue depth: %d, written by the test thread: %d",
+                captureCount, captureCount == 0 ? 0 : captureNanos.getAndSet(0) / 1e6 / captureCount, maxCaptureNanos.getAndSet(0) / 1e6,
+                writeCount, writeCount == 0 ? 0 : writeNanos.getAndSet(0) / 1e6 / writeCount,
+                maxQueueDepth.getAndSet(0), callerWrites.getAndSet(0)));
+        long raw = rawBytes.getAndSet(0);
+        if (raw > 0) {
+            logInfo(String.format("Screenshot size: %.1f MB as PNG, %.1f MB written as JPEG with thumbnails", raw / 1e6, writtenBytes.getAndSet(0) / 1e6));
+        }
+        long linked = similar.getAndSet(0);
+        if (linked > 0) {
+            logInfo("Step screenshots linked to a similar previous screenshot: " + linked);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Write {
+        void run() throws IOException;
+    }
+
+    /**
+     * <b>A written screenshot and its perceptual hash.</b>
+     */
+    private static final class Saved {
+        private final String path;
+        private final long hash;
+
+        private Saved(String path, long hash) {
+            this.path = path;
+            this.hash = hash;
+        }
+    }
+}
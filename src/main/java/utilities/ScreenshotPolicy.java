@@ -0,0 +1,108 @@
+package utilities;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.OutputType;
+
+import static common.AppiumUtils.logError;
+import static common.AppiumUtils.logInfo;
+import static common.AppiumUtils.logWarning;
+import static common.Core.screenshotDedupeDistance;
+import static common.Core.screenshotEveryNth;
+import static common.Core.screenshotPolicy;
+
+/**
+ * <b>Decides which passed and warned steps get a screenshot, set with the <code>screenshotPolicy</code> config.</b>
+ * <ul>
+ *   <li><b>ALWAYS:</b> every step is captured (default).</li>
+ *   <li><b>ON_FAILURE:</b> only failed steps and tests are captured.</li>
+ *   <li><b>EVERY_NTH:</b> every <code>screenshotEveryNth</code> step of a test is captured.</li>
+ *   <li><b>ON_CHANGE:</b> a step is captured only if an interaction may have changed the screen since the last screenshot, tracked by the
+ *   {@link ElementCache} generation; otherwise the last screenshot is reused without a request.</li>
+ * </ul>
+ * <p>With <code>screenshotDedupeDistance</code> set to 0 or more, captured screenshots are compared with the last saved one by their
+ * {@link PerceptualHash} on the {@link ScreenshotPipeline} workers, and a similar one is linked to the saved file instead of being written.
+ * The comparison is off by default because the coarse hash cannot tell small changes such as typed text apart. Failures are always
+ * captured by {@link ExtentReporterNG#getScreenshot} and are not affected by the policy.</p>
+ */
+public enum ScreenshotPolicy {
+    ALWAYS, ON_FAILURE, EVERY_NTH, ON_CHANGE;
+
+    private static int step;
+    private static String lastPath = "";
+    private static long lastGeneration = -1;
+    private static long captured;
+    private static long reused;
+    private static long skipped;
+
+    /**
+     * <b>Reads the configured policy.</b>
+     *
+     * @return the policy, ALWAYS if the config value is unknown.
+     */
+    public static ScreenshotPolicy current() {
+        try {
+            return valueOf(screenshotPolicy.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logWarning("Unknown screenshotPolicy '" + screenshotPolicy + "', capturing every step");
+            return ALWAYS;
+        }
+    }
+
+    /**
+     * <b>Returns the screenshot of a passed or warned step according to the policy.</b>
+     *
+     * @param testcaseName the name of the test case.
+     * @param status       the status of the test step (e.g., "pass" or "fail").
+     * @param driver       the AppiumDriver instance to capture the screenshot.
+     * @return the path of a new or reused screenshot, or an empty string if the step gets none.
+     */
+    public static synchronized String forStep(String testcaseName, String status, AppiumDriver driver) {
+        step++;
+        ScreenshotPolicy policy = current();
+        if (policy == ON_FAILURE || (policy == EVERY_NTH && step % Math.max(1, screenshotEveryNth) != 0)) {
+            skipped++;
+            return "";
+        }
+        if (policy == ON_CHANGE && !lastPath.isEmpty() && ElementCache.generation() == lastGeneration) {
+            reused++;
+            return lastPath;
+        }
+
+        long start = System.nanoTime();
+        try {
+            byte[] png = driver.getScreenshotAs(OutputType.BYTES);
+            lastGeneration = ElementCache.generation();
+            lastPath = ExtentReporterNG.saveScreenshot(testcaseName, status, png, screenshotDedupeDistance >= 0);
+            ScreenshotPipeline.recordCapture(System.nanoTime() - start);
+            captured++;
+            return lastPath;
+        } catch (Exception e) {
+            logError("[" + e.getClass().getSimpleName() + "] | Message --> " + e.getMessage());
+            return "";
+        }
+    }
+
+    /**
+     * <b>Starts a new test: step counting restarts and no screenshot of the previous test is reused.</b>
+     */
+    public static synchronized void reset() {
+        step = 0;
+        lastPath = "";
+        lastGeneration = -1;
+        ScreenshotPipeline.resetSimilarity();
+        ScreenshotStore.resetSimilarity();
+    }
+
+    /**
+     * <b>Logs how many step screenshots were captured, reused and skipped, and resets the counters.</b>
+     */
+    public static synchronized void logStatistics() {
+        if (captured + reused + skipped == 0) {
+            return;
+        }
+        logInfo("Step screenshots (" + current() + "): " + captured + " captured, " + reused + " reused, " + skipped + " skipped");
+        captured = 0;
+        reused = 0;
+        skipped = 0;
+    }
+}
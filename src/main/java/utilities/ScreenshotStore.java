@@ -0,0 +1,238 @@
+package utilities;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static common.AppiumUtils.logError;
+import static common.AppiumUtils.logInfo;
+import static common.Core.screenshotDedupeDistance;
+
+/**
+ * <b>Stores report screenshots once per content, shared by all tests and runs.</b>
+ * <p>Each screenshot is keyed by the SHA-256 of its PNG bytes and kept as <code>testReports/store/&lt;aa&gt;/&lt;sha256&gt;.jpg</code> with
+ * its thumbnail next to it, where <code>aa</code> are the first two hex digits. A screenshot already in the store is neither encoded nor
+ * written again. Reports link to the store with paths relative to their own folder.</p>
+ * <p>Every run lists the hashes it references in <code>screenshots.manifest</code> in its report folder, appended as they are first
+ * referenced. The number of manifests
+ * referencing a hash is its reference count; {@link #main(String[])} deletes old report folders and then every stored screenshot that no
+ * remaining manifest references. Run it while no tests are running, e.g. as a CI step before archiving the reports.</p>
+ */
+public class ScreenshotStore {
+
+    public static final String MANIFEST = "screenshots.manifest";
+    private static final String REPORTS_DIR = "./testReports";
+    private static final String STORE_DIR = "store";
+    private static final Set<String> stored = ConcurrentHashMap.newKeySet();
+    private static final Set<String> referenced = ConcurrentHashMap.newKeySet();
+    private static Entry lastStored;
+    private static long similar;
+
+    private ScreenshotStore() {
+    }
+
+    /**
+     * <b>Adds a screenshot to the store, unless it is already there.</b>
+     * <p>A file in the store always holds the image its name is the hash of. Perceptual deduplication therefore does not link files: a
+     * step screenshot that looks like the last one stored is not stored at all, and the link of the stored one is returned instead. This
+     * needs the answer before the link is returned, so in store mode the screenshot is decoded and hashed on the test thread.</p>
+     *
+     * @param png           the screenshot bytes as returned by the driver.
+     * @param unlessSimilar true to return the last stored screenshot if it differs in at most <code>screenshotDedupeDistance</code>
+     *                      bits of its {@link PerceptualHash}.
+     * @return the link to the screenshot, relative to the report folder.
+     */
+    public static String put(byte[] png, boolean unlessSimilar) {
+        String hash = sha256(png);
+        if (unlessSimilar) {
+            String similarLink = similarLink(hash, png);
+            if (similarLink != null) {
+                return similarLink;
+            }
+        }
+        if (referenced.add(hash)) {
+            appendToManifest(hash);
+        }
+        String relativePath = linkOf(hash);
+        File file = new File(REPORTS_DIR, relativePath);
+        if (stored.add(hash) && !file.exists()) {
+            ScreenshotPipeline.persist(file.getPath(), png, () -> forget(hash));
+        }
+        return "../" + relativePath;
+    }
+
+    /**
+     * <b>Compares a step screenshot with the last one stored since {@link #resetSimilarity()}.</b>
+     * <p>Only a screenshot that is stored becomes the one the next is compared with, so a slowly changing screen is stored again once it
+     * has drifted far enough.</p>
+     *
+     * @return the link of the last stored screenshot if it looks the same, null if this one must be stored.
+     */
+    private static String similarLink(String hash, byte[] png) {
+        long perceptualHash;
+        try {
+            perceptualHash = PerceptualHash.dHash(png);
+        } catch (IOException e) {
+            return null; // not an image we can compare, store it as it is
+        }
+        synchronized (ScreenshotStore.class) {
+            if (lastStored != null && !lastStored.hash.equals(hash)
+                    && PerceptualHash.distance(perceptualHash, lastStored.perceptualHash) <= screenshotDedupeDistance) {
+                similar++;
+                return "../" + linkOf(lastStored.hash);
+            }
+            lastStored = new Entry(hash, perceptualHash);
+            return null;
+        }
+    }
+
+    /**
+     * <b>Forgets a screenshot whose file could not be written, so the next identical screenshot writes it again and no similar one links
+     * to it.</b>
+     */
+    private static void forget(String hash) {
+        stored.remove(hash);
+        synchronized (ScreenshotStore.class) {
+            if (lastStored != null && lastStored.hash.equals(hash)) {
+                lastStored = null;
+            }
+        }
+    }
+
+    /**
+     * <b>Starts a new test: its first step screenshot is not compared with the screenshots of the previous test.</b>
+     */
+    public static synchronized void resetSimilarity() {
+        lastStored = null;
+    }
+
+    private static String linkOf(String hash) {
+        return STORE_DIR + "/" + hash.substring(0, 2) + "/" + hash + ".jpg";
+    }
+
+    /**
+     * <b>Adds a hash to the manifest of the running report as soon as it is first referenced.</b>
+     * <p>A run that crashes keeps the manifest of every screenshot it linked, so {@link #main(String[])} does not delete them.</p>
+     */
+    private static synchronized void appendToManifest(String hash) {
+        try {
+            FileUtils.writeLines(new File(ExtentReporterNG.reportDirPath, MANIFEST), StandardCharsets.UTF_8.name(),
+                    Collections.singletonList(hash), true);
+        } catch (IOException e) {
+            logError("Could not update the screenshot manifest | [" + e.getClass().getSimpleName() + "] " + e.getMessage());
+        }
+    }
+
+    /**
+     * <b>Logs how many stored screenshots this run references.</b>
+     * <p>The manifest of the report folder is complete at this point, it has been appended to while the run went on.</p>
+     */
+    public static void logStatistics() {
+        if (referenced.isEmpty()) {
+            return;
+        }
+        logInfo("Screenshots referenced by this run: " + referenced.size() + " in " + new File(REPORTS_DIR, STORE_DIR).getPath());
+        synchronized (ScreenshotStore.class) {
+            if (similar > 0) {
+                logInfo("Step screenshots replaced by a similar stored screenshot: " + similar);
+            }
+            similar = 0;
+        }
+    }
+
+    /**
+     * <b>Deletes old report folders and the stored screenshots no remaining report references.</b>
+     * <p>Usage: <code>ScreenshotStore [retentionDays] [reportsDir]</code>. Without retentionDays no report folder is deleted, only
+     * unreferenced screenshots. The reports folder defaults to <code>./testReports</code>.</p>
+     *
+     * @param args the retention in days and the reports folder, both optional.
+     * @throws IOException if a folder cannot be read or deleted.
+     */
+    public static void main(String[] args) throws IOException {
+        int retentionDays = args.length > 0 ? Integer.parseInt(args[0]) : -1;
+        File reportsDir = new File(args.length > 1 ? args[1] : REPORTS_DIR);
+        File storeDir = new File(reportsDir, STORE_DIR);
+        File[] runs = reportsDir.listFiles(file -> file.isDirectory() && !file.getName().equals(STORE_DIR));
+        if (runs == null) {
+            System.out.println("No reports found in " + reportsDir.getPath());
+            return;
+        }
+
+        Map<String, Integer> referenceCounts = new HashMap<>();
+        int deletedRuns = 0;
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        for (File run : runs) {
+            if (retentionDays >= 0 && run.lastModified() < cutoff) {
+                FileUtils.deleteDirectory(run);
+                deletedRuns++;
+                continue;
+            }
+            File manifest = new File(run, MANIFEST);
+            if (manifest.isFile()) {
+                List<String> hashes = FileUtils.readLines(manifest, StandardCharsets.UTF_8);
+                for (String hash : hashes) {
+                    referenceCounts.merge(hash.trim(), 1, Integer::sum);
+                }
+            }
+        }
+
+        int deletedFiles = 0;
+        long freedBytes = 0;
+        File[] buckets = storeDir.listFiles(File::isDirectory);
+        for (File bucket : buckets == null ? new File[0] : buckets) {
+            File[] files = bucket.listFiles(File::isFile);
+            for (File file : files == null ? new File[0] : files) {
+                String hash = file.getName().replaceFirst("(_thumb)?\\.jpg$", "");
+                if (!referenceCounts.containsKey(hash)) {
+                    freedBytes += file.length();
+                    if (file.delete()) {
+                        deletedFiles++;
+                    }
+                }
+            }
+            String[] remaining = bucket.list();
+            if (remaining != null && remaining.length == 0) {
+                bucket.delete();
+            }
+        }
+        System.out.printf("Deleted %d report folder(s) and %d unreferenced screenshot file(s), freed %.1f MB; %d screenshots still referenced%n",
+                deletedRuns, deletedFiles, freedBytes / 1e6, referenceCounts.size());
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * <b>A stored screenshot and its perceptual hash.</b>
+     */
+    private static final class Entry {
+        private final String hash;
+        private final long perceptualHash;
+
+        private Entry(String hash, long perceptualHash) {
+            this.hash = hash;
+            this.perceptualHash = perceptualHash;
+        }
+    }
+}
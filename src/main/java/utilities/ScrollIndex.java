@@ -0,0 +1,230 @@
+package utilities;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.Dimension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static common.AppiumUtils.logInfo;
+import static common.AppiumUtils.logWarning;
+import static common.Core.scrollMaxSwipes;
+
+/**
+ * <b>Remembers at which scroll position of a screen each element appears, so later searches need one scroll.</b>
+ * <p>{@link #build(AppiumDriver)} scrolls the list of the current screen to the top and then through to the end once, in fixed steps. The
+ * page source of every step is kept. Later searches on the same screen compare the visible labels with the recorded steps to find the
+ * current position, look up the step showing the target and scroll the difference with one <code>mobile: scrollGesture</code> call.</p>
+ * <p>Indexes are kept per Android activity. When the visible labels no longer match any recorded step, the content has changed and the
+ * index of the screen is dropped; the search then falls back to {@link ScrollSearch}. Flutter finders are looked up by their semantics
+ * label or text, which Flutter exposes to the native accessibility tree. Only Android sessions are indexed.</p>
+ */
+public class ScrollIndex {
+
+    private static final double STEP_PERCENT = 0.5;
+    private static final double MIN_OVERLAP = 0.5;
+    private static final Map<String, ScrollIndex> indexes = new HashMap<>();
+
+    private final List<PageSnapshot> steps;
+    private final List<Set<String>> labels = new ArrayList<>();
+
+    private ScrollIndex(List<PageSnapshot> steps) {
+        this.steps = steps;
+        for (PageSnapshot step : steps) {
+            labels.add(step.labels());
+        }
+    }
+
+    /**
+     * <b>Scrolls through the list of the current screen once and stores its index.</b>
+     * <p>The list is left scrolled to its end.</p>
+     *
+     * @param driver the AppiumDriver instance used to scroll.
+     * @return the number of recorded steps, 0 if the session is not an Android session.
+     */
+    public static int build(AppiumDriver driver) {
+        if (!(driver instanceof AndroidDriver)) {
+            logWarning("Scroll index is only supported on Android");
+            return 0;
+        }
+        ContextManager.ensure(driver, ContextManager.NATIVE_APP);
+        String screen = ((AndroidDriver) driver).currentActivity();
+        Dimension size = driver.manage().window().getSize();
+
+        for (int i = 0; i < scrollMaxSwipes && ScrollSearch.scroll(driver, size, "up", 1.0, false); i++) {
+            // scroll to the top, the gesture reports false once the list cannot move further
+        }
+
+        List<PageSnapshot> steps = new ArrayList<>();
+        steps.add(PageSnapshot.capture(driver));
+        for (int i = 0; i < scrollMaxSwipes; i++) {
+            boolean canScrollMore = ScrollSearch.scroll(driver, size, "down", STEP_PERCENT, false);
+            PageSnapshot snapshot = PageSnapshot.capture(driver);
+            if (snapshot.getPageSource().hashCode() == steps.get(steps.size() - 1).getPageSource().hashCode()) {
+                break;
+            }
+            steps.add(snapshot);
+            if (!canScrollMore) {
+                break;
+            }
+        }
+        ElementCache.invalidateScreen();
+
+        synchronized (ScrollIndex.class) {
+            indexes.put(screen, new ScrollIndex(steps));
+        }
+        logInfo("Indexed " + steps.size() + " scroll positions of " + screen);
+        return steps.size();
+    }
+
+    /**
+     * <b>Scrolls straight to the element if the current screen is indexed.</b>
+     *
+     * @param driver  the AppiumDriver instance used to scroll.
+     * @param locator the compiled locator of the element.
+     * @return true if the element is visible after the scroll, false if the screen or element is not indexed or the jump missed it.
+     */
+    static boolean jumpTo(AppiumDriver driver, CompiledLocator locator) {
+        if (!(driver instanceof AndroidDriver)) {
+            return false;
+        }
+        synchronized (ScrollIndex.class) {
+            if (indexes.isEmpty()) {
+                return false;
+            }
+        }
+        ContextManager.ensure(driver, ContextManager.NATIVE_APP);
+        String screen = ((AndroidDriver) driver).currentActivity();
+        ScrollIndex index;
+        synchronized (ScrollIndex.class) {
+            index = indexes.get(screen);
+        }
+        if (index == null) {
+            return false;
+        }
+
+        PageSnapshot current = PageSnapshot.capture(driver);
+        int position = index.positionOf(current.labels());
+        if (position < 0) {
+            invalidate(screen);
+            logInfo("Content of " + screen + " changed, dropped its scroll index");
+            return false;
+        }
+        int target = index.stepOf(locator, position);
+        if (target < 0) {
+            return false;
+        }
+        if (target == position) {
+            return index.matches(current, locator);
+        }
+
+        Dimension size = driver.manage().window().getSize();
+        ScrollSearch.scroll(driver, size, target > position ? "down" : "up", Math.abs(target - position) * STEP_PERCENT, false);
+        ElementCache.invalidateScreen();
+        boolean found = index.matches(PageSnapshot.capture(driver), locator);
+        if (found) {
+            logInfo("Jumped " + Math.abs(target - position) + " indexed step(s) to " + locator.alias());
+        }
+        return found;
+    }
+
+    /**
+     * <b>Drops the index of a screen.</b>
+     *
+     * @param screen the activity of the screen.
+     */
+    public static synchronized void invalidate(String screen) {
+        indexes.remove(screen);
+    }
+
+    /**
+     * <b>Drops all indexes, called when a new session starts.</b>
+     */
+    public static synchronized void reset() {
+        indexes.clear();
+    }
+
+    /**
+     * <b>Finds the recorded step that best matches the visible labels.</b>
+     *
+     * @return the step, or -1 if no step shares enough labels with the screen.
+     */
+    private int positionOf(Set<String> visible) {
+        int best = -1;
+        double bestOverlap = MIN_OVERLAP;
+        for (int step = 0; step < labels.size(); step++) {
+            Set<String> recorded = labels.get(step);
+            if (recorded.isEmpty() && visible.isEmpty()) {
+                return step;
+            }
+            long shared = visible.stream().filter(recorded::contains).count();
+            double overlap = (double) shared / Math.max(1, Math.max(visible.size(), recorded.size()));
+            if (overlap >= bestOverlap) {
+                best = step;
+                bestOverlap = overlap;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * <b>Finds the step showing the element that is closest to the current position.</b>
+     *
+     * @return the step, or -1 if the element was not recorded.
+     */
+    private int stepOf(CompiledLocator locator, int position) {
+        int best = -1;
+        for (int step = 0; step < steps.size(); step++) {
+            if (matches(step, locator) && (best < 0 || Math.abs(step - position) < Math.abs(best - position))) {
+                best = step;
+            }
+        }
+        return best;
+    }
+
+    private boolean matches(int step, CompiledLocator locator) {
+        String label = flutterLabel(locator);
+        if (label != null) {
+            return labels.get(step).contains(label);
+        }
+        return PageSnapshot.supports(locator) && steps.get(step).isDisplayed(locator);
+    }
+
+    private boolean matches(PageSnapshot snapshot, CompiledLocator locator) {
+        String label = flutterLabel(locator);
+        if (label != null) {
+            return snapshot.labels().contains(label);
+        }
+        return PageSnapshot.supports(locator) && snapshot.isDisplayed(locator);
+    }
+
+    /**
+     * <b>Reads the semantics label or text of the first Flutter candidate.</b>
+     *
+     * @return the label, or null if the locator has no Flutter candidate matching by label or text.
+     */
+    private static String flutterLabel(CompiledLocator locator) {
+        for (CompiledLocator candidate : locator.candidates()) {
+            if (candidate.isFlutter()) {
+                Map<String, String> finder = FlutterFinder.fromJson(FlutterFinder.decode(candidate.value()));
+                if (finder.containsKey("matching")) {
+                    finder = FlutterFinder.fromJson(finder.get("matching"));
+                }
+                switch (finder.get("finderType")) {
+                    case "BySemanticsLabel":
+                        return finder.get("label");
+                    case "ByText":
+                    case "ByTooltipMessage":
+                        return finder.get("text");
+                    default:
+                        return null;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,208 @@
+package utilities;
+
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebElement;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static common.AppiumUtils.logInfo;
+import static common.AppiumUtils.logWarning;
+import static common.Core.scrollMaxSwipes;
+
+/**
+ * <b>Scrolls a list until an element is visible, letting the server do the scrolling where it can.</b>
+ * <p>The search picks the cheapest way the locator allows:</p>
+ * <ul>
+ *   <li><b>Flutter finders:</b> one <code>flutter:scrollUntilVisible</code> call scrolls the first Scrollable widget until the finder matches.</li>
+ *   <li><b>Android locators expressible as a UiSelector</b> (id, accessibility, className, UiSelector expressions), scrolling down: one
+ *   <code>UiScrollable.scrollIntoView</code> lookup, which scrolls and detects the end of the list on the device. UiScrollable always
+ *   searches forward from the top of the list, so scrolling up uses the gesture loop instead.</li>
+ *   <li><b>Everything else:</b> a loop of <code>mobile: scrollGesture</code> (Android) or <code>mobile: scroll</code> (iOS) calls. After each
+ *   scroll the page source is fetched once; it answers the visibility check for snapshot-supported locators and its hash tells whether the
+ *   content moved. An unchanged page source, or a scroll gesture reporting that it cannot scroll further, ends the search.</li>
+ * </ul>
+ * <p>The number of scrolls is limited by the <code>scrollMaxSwipes</code> config. When the screen was indexed, a single computed scroll is
+ * tried first, see {@link ScrollIndex}. Only "not found" ends a search with false; any other driver error, such as a lost session or an
+ * invalid selector, is thrown to the caller.</p>
+ */
+public class ScrollSearch {
+
+    private static final String FLUTTER_SCROLLABLE = FlutterFinder.encode(FlutterFinder.byType("Scrollable"));
+    private static final int FLUTTER_SCROLL_DELTA = 300;
+    private static final int SCROLL_PERCENT = 70;
+
+    private ScrollSearch() {
+    }
+
+    /**
+     * <b>Scrolls until the element is visible.</b>
+     *
+     * @param driver    the AppiumDriver instance used to scroll.
+     * @param element   the aliased WebElement to scroll to.
+     * @param direction the direction to scroll ("up" or "down").
+     * @return true if the element is visible, false if the end of the list was reached without finding it.
+     * @throws org.openqa.selenium.WebDriverException if the driver fails for another reason than not finding the element.
+     */
+    public static boolean scrollTo(AppiumDriver driver, WebElement element, String direction) {
+        CompiledLocator locator = WebElementProxyHandler.locatorOf(element);
+        if (locator != null && ScrollIndex.jumpTo(driver, locator)) {
+            return true;
+        }
+        if (locator != null) {
+            for (CompiledLocator candidate : locator.candidates()) {
+                if (candidate.isFlutter()) {
+                    return scrollFlutter(driver, candidate, direction);
+                }
+            }
+            if (!AnnotationProcessor.isIOS(driver) && !"up".equalsIgnoreCase(direction)) {
+                for (CompiledLocator candidate : locator.candidates()) {
+                    String selector = toUiSelector(candidate);
+                    if (selector != null) {
+                        return scrollIntoView(driver, selector);
+                    }
+                }
+            }
+        }
+        return scrollWithGestures(driver, element, locator, direction);
+    }
+
+    private static boolean scrollFlutter(AppiumDriver driver, CompiledLocator candidate, String direction) {
+        ContextManager.ensure(driver, ContextManager.FLUTTER);
+        Map<String, Object> args = new HashMap<>();
+        args.put("item", candidate.value());
+        args.put("dxScroll", 0);
+        args.put("dyScroll", "up".equalsIgnoreCase(direction) ? FLUTTER_SCROLL_DELTA : -FLUTTER_SCROLL_DELTA);
+        args.put("waitTimeoutMilliseconds", scrollMaxSwipes * 1000);
+        try {
+            driver.executeScript("flutter:scrollUntilVisible", FLUTTER_SCROLLABLE, args);
+            return true;
+        } catch (TimeoutException | NoSuchElementException e) {
+            logWarning("Flutter scroll did not reach " + candidate.alias() + " | " + e.getMessage());
+            return false;
+        } finally {
+            ElementCache.invalidateScreen();
+            FlutterSync.settle(driver);
+        }
+    }
+
+    private static boolean scrollIntoView(AppiumDriver driver, String selector) {
+        ContextManager.ensure(driver, ContextManager.NATIVE_APP);
+        String scrollable = "new UiScrollable(new UiSelector().scrollable(true)).setMaxSearchSwipes(" + scrollMaxSwipes + ")"
+                + ".scrollIntoView(" + selector + ")";
+        try {
+            driver.findElement(AppiumBy.androidUIAutomator(scrollable));
+            return true;
+        } catch (NoSuchElementException e) {
+            return false; // the end of the list was reached
+        } finally {
+            ElementCache.invalidateScreen();
+        }
+    }
+
+    private static boolean scrollWithGestures(AppiumDriver driver, WebElement element, CompiledLocator locator, String direction) {
+        boolean ios = AnnotationProcessor.isIOS(driver);
+        boolean snapshotCheck = locator != null && PageSnapshot.supports(locator);
+        ContextManager.ensure(driver, ContextManager.NATIVE_APP);
+        Dimension size = driver.manage().window().getSize();
+
+        String target = locator == null ? "element" : locator.alias();
+
+        PageSnapshot snapshot = PageSnapshot.capture(driver);
+        for (int scrolls = 0; ; scrolls++) {
+            if (snapshotCheck ? snapshot.isDisplayed(locator) : isDisplayedNow(element)) {
+                if (scrolls > 0) {
+                    logInfo("Found " + target + " after " + scrolls + " scroll(s)");
+                }
+                return true;
+            }
+            if (scrolls >= scrollMaxSwipes) {
+                logWarning("Stopped scrolling for " + target + " after " + scrolls + " scrolls (scrollMaxSwipes)");
+                return false;
+            }
+
+            boolean canScrollMore = scroll(driver, size, direction, SCROLL_PERCENT / 100.0, ios);
+            ElementCache.invalidateScreen();
+            int before = snapshot.getPageSource().hashCode();
+            snapshot = PageSnapshot.capture(driver);
+            if (snapshot.getPageSource().hashCode() == before) {
+                return false; // the content did not move, the end of the list was reached
+            }
+            if (!canScrollMore) {
+                return snapshotCheck ? snapshot.isDisplayed(locator) : isDisplayedNow(element);
+            }
+        }
+    }
+
+    /**
+     * <b>Scrolls the middle of the screen once with a server-side gesture.</b>
+     * <p>On Android a percent above 1.0 is split into several swipes by the server, still in one request.</p>
+     *
+     * @param driver    the AppiumDriver instance used to scroll.
+     * @param size      the window size.
+     * @param direction the direction to scroll ("up" or "down").
+     * @param percent   the scroll distance as a fraction of the scroll area, ignored on iOS.
+     * @param ios       true for an XCUITest session.
+     * @return false if the server reports that the list cannot scroll further.
+     */
+    static boolean scroll(AppiumDriver driver, Dimension size, String direction, double percent, boolean ios) {
+        Map<String, Object> args = new HashMap<>();
+        args.put("direction", "up".equalsIgnoreCase(direction) ? "up" : "down");
+        if (ios) {
+            driver.executeScript("mobile: scroll", args);
+            return true;
+        }
+        args.put("left", size.getWidth() / 10);
+        args.put("top", size.getHeight() / 5);
+        args.put("width", size.getWidth() * 8 / 10);
+        args.put("height", size.getHeight() * 3 / 5);
+        args.put("percent", percent);
+        return !Boolean.FALSE.equals(driver.executeScript("mobile: scrollGesture", args));
+    }
+
+    private static boolean isDisplayedNow(WebElement element) {
+        return TimeoutManager.explicitWait(() -> {
+            try {
+                return element.isDisplayed();
+            } catch (NoSuchElementException | StaleElementReferenceException e) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * <b>Translates a native Android locator into a UiSelector expression.</b>
+     *
+     * @param locator the compiled locator.
+     * @return the UiSelector expression, or null if the strategy has no UiSelector equivalent.
+     */
+    static String toUiSelector(CompiledLocator locator) {
+        String value = locator.value();
+        switch (locator.strategy()) {
+            case "id":
+                return value.contains(":") ? "new UiSelector().resourceId(" + quote(value) + ")"
+                        : "new UiSelector().resourceIdMatches(" + quote(".*:id/" + value) + ")";
+            case "accessibility":
+                return "new UiSelector().description(" + quote(value) + ")";
+            case "className":
+                return "new UiSelector().className(" + quote(value) + ")";
+            case "uiAutomator":
+                String selector = value.trim();
+                if (selector.endsWith(";")) {
+                    selector = selector.substring(0, selector.length() - 1);
+                }
+                return selector.startsWith("new UiSelector()") ? selector : null;
+            default:
+                return null;
+        }
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,161 @@
+package utilities;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+
+import static common.AppiumUtils.logError;
+import static common.AppiumUtils.logInfo;
+import static common.Core.userDirPath;
+
+/**
+ * <b>Learns which locator strategy of an aliased element works fastest and keeps that knowledge between runs.</b>
+ * <p>For locators with fallbacks, every successful lookup updates the average latency of the strategy that matched, and strategies that
+ * were tried before it without a match are counted as failures. Candidates are then ordered: working strategies by average latency, untried
+ * ones in declaration order, and strategies that fail more often than they work last. The ordering is stored in
+ * <code>.locator-ranking.properties</code> in the project directory.</p>
+ */
+public class StrategyRanking {
+
+    private static final String RANKING_FILE = ".locator-ranking.properties";
+    private static final double SMOOTHING = 0.3; // weight of the latest latency in the moving average
+    private static Properties ranking;
+
+    private StrategyRanking() {
+    }
+
+    /**
+     * <b>Per-strategy history, stored as "successes,failures,averageMillis".</b>
+     */
+    private static class History {
+        long successes;
+        long failures;
+        double averageMillis;
+
+        static History parse(String text) {
+            History history = new History();
+            if (text != null) {
+                String[] parts = text.split(",");
+                history.successes = Long.parseLong(parts[0]);
+                history.failures = Long.parseLong(parts[1]);
+                history.averageMillis = Double.parseDouble(parts[2]);
+            }
+            return history;
+        }
+
+        int group() {
+            if (successes == 0 && failures == 0) {
+                return 1;
+            }
+            return failures > successes ? 2 : 0;
+        }
+
+        @Override
+        public String toString() {
+            return successes + "," + failures + "," + averageMillis;
+        }
+    }
+
+    private static File rankingFile() {
+        return new File(userDirPath, RANKING_FILE);
+    }
+
+    private static synchronized Properties ranking() {
+        if (ranking == null) {
+            ranking = new Properties();
+            File file = rankingFile();
+            if (file.exists()) {
+                try (FileInputStream input = new FileInputStream(file)) {
+                    ranking.load(input);
+                } catch (Exception e) {
+                    logError("[" + e.getClass().getSimpleName() + "] Could not read locator ranking | Message --> " + e.getMessage());
+                }
+            }
+        }
+        return ranking;
+    }
+
+    private static String key(CompiledLocator locator, CompiledLocator candidate) {
+        return locator.alias() + " | " + candidate.strategy() + "=" + candidate.value();
+    }
+
+    private static History history(CompiledLocator locator, CompiledLocator candidate) {
+        try {
+            return History.parse(ranking().getProperty(key(locator, candidate)));
+        } catch (RuntimeException e) {
+            return new History();
+        }
+    }
+
+    /**
+     * <b>Returns the candidates of a locator in the order they should be tried.</b>
+     *
+     * @param locator the compiled locator with its fallbacks.
+     * @return the candidate locators, best first.
+     */
+    public static synchronized List<CompiledLocator> order(CompiledLocator locator) {
+        List<CompiledLocator> candidates = new ArrayList<>(locator.candidates());
+        List<History> histories = new ArrayList<>();
+        for (CompiledLocator candidate : candidates) {
+            histories.add(history(locator, candidate));
+        }
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            indexes.add(i);
+        }
+        indexes.sort(Comparator.<Integer>comparingInt(i -> histories.get(i).group())
+                .thenComparingDouble(i -> histories.get(i).group() == 0 ? histories.get(i).averageMillis : 0)
+                .thenComparingInt(i -> i));
+        List<CompiledLocator> ordered = new ArrayList<>();
+        for (int index : indexes) {
+            ordered.add(candidates.get(index));
+        }
+        return ordered;
+    }
+
+    /**
+     * <b>Records that a candidate found the element.</b>
+     *
+     * @param locator   the compiled locator with its fallbacks.
+     * @param candidate the candidate that matched.
+     * @param nanos     the duration of the lookup.
+     */
+    public static synchronized void recordSuccess(CompiledLocator locator, CompiledLocator candidate, long nanos) {
+        History history = history(locator, candidate);
+        double millis = nanos / 1_000_000.0;
+        history.averageMillis = history.successes == 0 ? millis : SMOOTHING * millis + (1 - SMOOTHING) * history.averageMillis;
+        history.successes++;
+        ranking().setProperty(key(locator, candidate), history.toString());
+    }
+
+    /**
+     * <b>Records that a candidate did not match while another candidate of the same locator did.</b>
+     *
+     * @param locator   the compiled locator with its fallbacks.
+     * @param candidate the candidate that did not match.
+     */
+    public static synchronized void recordFailure(CompiledLocator locator, CompiledLocator candidate) {
+        History history = history(locator, candidate);
+        history.failures++;
+        ranking().setProperty(key(locator, candidate), history.toString());
+    }
+
+    /**
+     * <b>Saves the learned ordering for the next run.</b>
+     */
+    public static synchronized void save() {
+        if (ranking == null || ranking.isEmpty()) {
+            return;
+        }
+        try (FileOutputStream output = new FileOutputStream(rankingFile())) {
+            ranking.store(output, "Learned locator strategy ranking (successes,failures,averageMillis)");
+            logInfo("Locator strategy ranking saved to " + rankingFile().getPath());
+        } catch (Exception e) {
+            logError("[" + e.getClass().getSimpleName() + "] Could not save locator ranking | Message --> " + e.getMessage());
+        }
+    }
+}
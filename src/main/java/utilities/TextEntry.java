@@ -0,0 +1,61 @@
+package utilities;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.remote.RemoteWebElement;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static common.AppiumUtils.logWarning;
+import static common.Core.fastTextEntry;
+
+/**
+ * <b>Enters text into a field with one request instead of typing it key by key.</b>
+ * <p><code>sendKeys</code> through UiAutomator2 types one character at a time. With the <code>fastTextEntry</code> config enabled, the
+ * value is set in bulk, chosen per element type:</p>
+ * <ul>
+ *   <li><b>Flutter widgets:</b> the field is focused with a tap and filled with <code>flutter:enterText</code>.</li>
+ *   <li><b>Android fields:</b> <code>mobile: replaceElementValue</code> sets the whole text at once, password fields included.</li>
+ *   <li><b>iOS fields:</b> <code>sendKeys</code>, which XCUITest already sends as one set-value request.</li>
+ * </ul>
+ * <p>If a bulk request is rejected, e.g. by a custom view that does not accept setText, the value is typed with <code>sendKeys</code>.</p>
+ */
+public class TextEntry {
+
+    private TextEntry() {
+    }
+
+    /**
+     * <b>Replaces the text of a field with the given value.</b>
+     *
+     * @param driver  the AppiumDriver instance used to interact with the element.
+     * @param element the resolved WebElement, aliased or not.
+     * @param value   the text to enter.
+     */
+    public static void enter(AppiumDriver driver, WebElement element, String value) {
+        WebElement target = element instanceof WrapsElement ? ((WrapsElement) element).getWrappedElement() : element;
+        if (fastTextEntry) {
+            try {
+                if (target instanceof FlutterElement) {
+                    target.click();
+                    driver.executeScript("flutter:enterText", value);
+                    return;
+                }
+                if (driver instanceof AndroidDriver && target instanceof RemoteWebElement) {
+                    Map<String, Object> args = new HashMap<>();
+                    args.put("elementId", ((RemoteWebElement) target).getId());
+                    args.put("text", value);
+                    driver.executeScript("mobile: replaceElementValue", args);
+                    return;
+                }
+            } catch (WebDriverException e) {
+                logWarning("Bulk text entry rejected, typing the value instead | " + e.getMessage());
+            }
+        }
+        target.sendKeys(value);
+    }
+}
@@ -0,0 +1,199 @@
+package utilities;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static common.Core.stepTimeBudget;
+import static common.Core.testTimeBudget;
+import static common.Core.waitMaxPollMillis;
+import static common.Core.waitMinPollMillis;
+
+/**
+ * <b>Owns every timeout of the session, so implicit and explicit waits never stack.</b>
+ * <p>The server-side implicit wait is set to zero once per session. The configured <code>implicitWaitTime</code> is applied on the client
+ * instead, only to element lookups made outside an explicit wait. Lookups inside a {@link WaitEngine} wait make a single attempt, so a missing
+ * element costs at most the explicit timeout.</p>
+ * <p>Each test and each step (the time between two reported steps) can get a time budget with the <code>testTimeBudgetSeconds</code> and
+ * <code>stepTimeBudgetSeconds</code> configs. Waits are shortened to the remaining budget and fail with a message naming the budget once it
+ * is used up. The time spent waiting and acting is summed per test.</p>
+ */
+public class TimeoutManager {
+
+    private static Duration implicitWait = Duration.ZERO;
+    private static int explicitWaitDepth;
+    private static long testStart = System.nanoTime();
+    private static long stepStart = System.nanoTime();
+    private static long testWaitNanos;
+
+    private TimeoutManager() {
+    }
+
+    /**
+     * <b>Takes over the implicit wait of a new session.</b>
+     *
+     * @param driver       the AppiumDriver instance of the session.
+     * @param implicitWait the implicit wait to apply on the client.
+     */
+    public static void configure(AppiumDriver driver, Duration implicitWait) {
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        TimeoutManager.implicitWait = implicitWait;
+    }
+
+    /**
+     * <b>Changes the client-side implicit wait without a request to the server.</b>
+     *
+     * @param implicitWait the new implicit wait.
+     * @return the previous implicit wait, to restore it afterwards.
+     */
+    public static Duration setImplicitWait(Duration implicitWait) {
+        Duration previous = TimeoutManager.implicitWait;
+        TimeoutManager.implicitWait = implicitWait;
+        return previous;
+    }
+
+    public static Duration getImplicitWait() {
+        return implicitWait;
+    }
+
+    /**
+     * <b>Runs an element lookup, retrying it for the implicit wait when it is not part of an explicit wait.</b>
+     *
+     * @param lookup the lookup, throwing a NotFoundException while the element is missing.
+     * @param <T>    the return type of the lookup.
+     * @return the result of the lookup.
+     * @throws NotFoundException if the element is still missing after the implicit wait.
+     */
+    public static <T> T find(Supplier<T> lookup) {
+        if (explicitWaitDepth > 0 || implicitWait.isZero()) {
+            return lookup.get();
+        }
+        long start = System.nanoTime();
+        long deadline = start + Math.min(implicitWait.toNanos(), remainingNanos());
+        long lastAttempt = start;
+        long interval = waitMinPollMillis;
+        try {
+            while (true) {
+                lastAttempt = System.nanoTime();
+                try {
+                    return lookup.get();
+                } catch (NotFoundException e) {
+                    if (System.nanoTime() >= deadline) {
+                        throw e;
+                    }
+                }
+                sleep(interval);
+                interval = Math.min(interval * 2, waitMaxPollMillis);
+            }
+        } finally {
+            recordWait(lastAttempt - start); // only the time until the last attempt was spent waiting
+        }
+    }
+
+    /**
+     * <b>Runs an explicit wait; element lookups inside it make a single attempt.</b>
+     *
+     * @param wait the wait to run.
+     * @param <T>  the return type of the wait.
+     * @return the result of the wait.
+     */
+    static <T> T explicitWait(Supplier<T> wait) {
+        explicitWaitDepth++;
+        try {
+            return wait.get();
+        } finally {
+            explicitWaitDepth--;
+        }
+    }
+
+    /**
+     * <b>Shortens a wait to the remaining step and test budget.</b>
+     *
+     * @param timeout the requested timeout.
+     * @param target  the description of what is waited for, used in the failure message.
+     * @return the timeout that may be spent.
+     * @throws TimeoutException if a budget is already used up.
+     */
+    public static Duration allow(Duration timeout, String target) {
+        long remaining = remainingNanos();
+        if (remaining <= 0) {
+            throw new TimeoutException(exhaustedBudget() + " before waiting for " + target);
+        }
+        return remaining < timeout.toNanos() ? Duration.ofNanos(remaining) : timeout;
+    }
+
+    /**
+     * <b>Describes the budget that limits the current step.</b>
+     *
+     * @return a message naming the budget and its size.
+     */
+    public static String exhaustedBudget() {
+        long stepRemaining = stepTimeBudget > 0 ? stepTimeBudget * 1_000_000_000L - (System.nanoTime() - stepStart) : Long.MAX_VALUE;
+        long testRemaining = testTimeBudget > 0 ? testTimeBudget * 1_000_000_000L - (System.nanoTime() - testStart) : Long.MAX_VALUE;
+        return stepRemaining <= testRemaining
+                ? "Step time budget of " + stepTimeBudget + " s used up"
+                : "Test time budget of " + testTimeBudget + " s used up";
+    }
+
+    private static long remainingNanos() {
+        long now = System.nanoTime();
+        long remaining = Long.MAX_VALUE;
+        if (stepTimeBudget > 0) {
+            remaining = Math.min(remaining, stepTimeBudget * 1_000_000_000L - (now - stepStart));
+        }
+        if (testTimeBudget > 0) {
+            remaining = Math.min(remaining, testTimeBudget * 1_000_000_000L - (now - testStart));
+        }
+        return remaining;
+    }
+
+    /**
+     * <b>Starts the budget and the wait/act timing of a new test.</b>
+     */
+    public static void startTest() {
+        testStart = System.nanoTime();
+        stepStart = testStart;
+        testWaitNanos = 0;
+    }
+
+    /**
+     * <b>Starts the budget of the next step, called whenever a step is reported.</b>
+     */
+    public static void startStep() {
+        stepStart = System.nanoTime();
+    }
+
+    /**
+     * <b>Adds time spent waiting to the current test.</b>
+     *
+     * @param nanos the duration of the wait.
+     */
+    public static void recordWait(long nanos) {
+        testWaitNanos += nanos;
+    }
+
+    /**
+     * <b>Summarizes the time spent waiting and acting in the current test.</b>
+     *
+     * @return the summary, e.g. "Waiting: 12.4 s (62%) | Acting: 7.6 s".
+     */
+    public static String summary() {
+        long total = System.nanoTime() - testStart;
+        long waiting = Math.min(testWaitNanos, total);
+        return String.format("Waiting: %.1f s (%d%%) | Acting: %.1f s", waiting / 1e9, total == 0 ? 0 : waiting * 100 / total,
+                (total - waiting) / 1e9);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException(e);
+        }
+    }
+}
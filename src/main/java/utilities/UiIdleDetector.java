@@ -0,0 +1,103 @@
+package utilities;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+
+import static common.AppiumUtils.logInfo;
+import static common.AppiumUtils.logWarning;
+import static common.Core.idleQuietMillis;
+import static common.Core.waitMinPollMillis;
+
+/**
+ * <b>Waits until the screen stops changing instead of sleeping for a fixed time.</b>
+ * <p>The page source is sampled and hashed. Sampling starts at the minimum polling interval, slows down while the screen is stable and
+ * speeds up again after a change. The wait returns once the hash has not changed for <code>idleQuietMillis</code>, or when the maximum is
+ * reached. Every sample is also passed to the {@link ElementCache}, so a changed screen invalidates cached elements.</p>
+ */
+public class UiIdleDetector {
+
+    private static long savedMillis;
+
+    private UiIdleDetector() {
+    }
+
+    /**
+     * <b>Waits until the screen has been stable for the quiet period.</b>
+     *
+     * @param driver the AppiumDriver instance used to fetch the page source.
+     * @param max    the maximum time to wait, usually the sleep this wait replaces.
+     * @return true if the screen became idle before the maximum.
+     */
+    public static boolean waitForIdle(AppiumDriver driver, Duration max) {
+        long start = System.nanoTime();
+        long maxNanos = max.toNanos();
+        long quietNanos = idleQuietMillis * 1_000_000L;
+        long interval = waitMinPollMillis;
+        int samples = 0;
+        boolean idle = false;
+        try {
+            ContextManager.ensure(driver, ContextManager.NATIVE_APP);
+            int lastHash = 0;
+            long lastChange = start;
+            while (System.nanoTime() - start < maxNanos) {
+                String source = driver.getPageSource();
+                samples++;
+                ElementCache.observeScreen(null, source);
+                long now = System.nanoTime();
+                if (samples == 1 || source.hashCode() != lastHash) {
+                    lastHash = source.hashCode();
+                    lastChange = now;
+                    interval = waitMinPollMillis; // the screen is moving, look again soon
+                } else if (now - lastChange >= quietNanos) {
+                    idle = true;
+                    break;
+                } else {
+                    interval = Math.min(interval * 2, idleQuietMillis / 2);
+                }
+                long sleepMillis = Math.min(interval, (maxNanos - (System.nanoTime() - start)) / 1_000_000);
+                if (sleepMillis > 0) {
+                    Thread.sleep(sleepMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (WebDriverException e) {
+            logWarning("Could not sample the screen, waiting the full " + max.toMillis() + " ms | " + e.getMessage());
+            sleepRemaining(start, maxNanos);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        TimeoutManager.recordWait(elapsedNanos);
+        long saved = Math.max(0, (maxNanos - elapsedNanos) / 1_000_000);
+        synchronized (UiIdleDetector.class) {
+            savedMillis += saved;
+        }
+        logInfo((idle ? "Screen idle after " : "Screen still changing after ") + elapsedNanos / 1_000_000 + " ms (" + samples + " samples)"
+                + " | Saved " + saved + " ms compared with a " + max.toMillis() + " ms sleep");
+        return idle;
+    }
+
+    private static void sleepRemaining(long start, long maxNanos) {
+        long remainingMillis = (maxNanos - (System.nanoTime() - start)) / 1_000_000;
+        if (remainingMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(remainingMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * <b>Logs the total time saved compared with fixed sleeps and resets it.</b>
+     */
+    public static synchronized void logStatistics() {
+        if (savedMillis > 0) {
+            logInfo("Idle detection saved " + savedMillis / 1000.0 + " s compared with fixed sleeps");
+        }
+        savedMillis = 0;
+    }
+}
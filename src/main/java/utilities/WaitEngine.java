@@ -0,0 +1,191 @@
+package utilities;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import static common.AppiumUtils.logInfo;
+import static common.Core.waitBackoffFactor;
+import static common.Core.waitMaxPollMillis;
+import static common.Core.waitMinPollMillis;
+
+/**
+ * <b>Waits for element conditions with a polling schedule adapted to each alias.</b>
+ * <p>For every alias the engine keeps a moving average of how long the element took to appear. The first poll is made immediately. With
+ * history, the engine sleeps until shortly before the expected time, polls at the minimum interval around it and then backs off by
+ * <code>waitBackoffFactor</code> up to <code>waitMaxPollMillis</code>. Without history it backs off from the first poll. This replaces a
+ * WebDriverWait per call polling at a fixed 500 ms.</p>
+ * <p>Missing and stale elements are ignored while polling, like in WebDriverWait. Element lookups inside the wait make a single attempt and
+ * the timeout is limited by the step and test budgets, see {@link TimeoutManager}.</p>
+ */
+public class WaitEngine {
+
+    private static final double SMOOTHING = 0.3; // weight of the latest duration in the moving average
+    private static final Map<String, Double> expectedMillisByAlias = new HashMap<>();
+    private static long successfulWaits;
+    private static long successfulPolls;
+    private static long failedWaits;
+    private static long failedPolls;
+
+    private final WebDriver driver;
+    private final String alias;
+    private final Duration timeout;
+    private int polls;
+
+    /**
+     * Constructor for WaitEngine.
+     *
+     * @param driver  the driver passed to the condition.
+     * @param element the element waited for, its alias selects the polling history.
+     * @param timeout the maximum time to wait.
+     */
+    public WaitEngine(WebDriver driver, WebElement element, Duration timeout) {
+        this(driver, aliasOf(element), timeout);
+    }
+
+    /**
+     * Constructor for WaitEngine.
+     *
+     * @param driver  the driver passed to the condition.
+     * @param alias   the name the polling history is kept under, or null for no history.
+     * @param timeout the maximum time to wait.
+     */
+    public WaitEngine(WebDriver driver, String alias, Duration timeout) {
+        this.driver = driver;
+        this.alias = alias;
+        this.timeout = timeout;
+    }
+
+    /**
+     * <b>Polls the condition until it returns a non-null value other than false.</b>
+     *
+     * @param condition the condition to evaluate, e.g. an ExpectedCondition.
+     * @param <T>       the return type of the condition.
+     * @return the value returned by the condition.
+     * @throws TimeoutException if the condition is not met before the timeout or the time budget is used up.
+     */
+    public <T> T until(Function<WebDriver, T> condition) {
+        long start = System.nanoTime();
+        try {
+            return TimeoutManager.explicitWait(() -> poll(condition));
+        } finally {
+            TimeoutManager.recordWait(System.nanoTime() - start);
+        }
+    }
+
+    private <T> T poll(Function<WebDriver, T> condition) {
+        String target = alias == null ? "element" : "'" + alias + "'";
+        long timeoutMillis = TimeoutManager.allow(timeout, target).toMillis();
+        boolean limitedByBudget = timeoutMillis < timeout.toMillis();
+        long start = System.nanoTime();
+        Double expectedMillis = expectedMillis();
+        long interval = waitMinPollMillis;
+        RuntimeException lastException = null;
+        while (true) {
+            polls++;
+            try {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    recordSuccess((System.nanoTime() - start) / 1_000_000);
+                    return value;
+                }
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                lastException = e;
+            }
+
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            if (elapsed >= timeoutMillis) {
+                recordFailure();
+                if (limitedByBudget) {
+                    throw new TimeoutException(TimeoutManager.exhaustedBudget() + " while waiting for " + target
+                            + " (" + polls + " polls)", lastException);
+                }
+                throw new TimeoutException("Expected condition failed: waiting for " + target
+                        + " (tried for " + timeoutMillis / 1000 + " second(s) with " + polls + " adaptive polls)", lastException);
+            }
+            long sleep;
+            if (expectedMillis != null && elapsed < expectedMillis * 0.5) {
+                sleep = Math.min((long) (expectedMillis * 0.5) - elapsed, waitMaxPollMillis); // too early, jump to the expected window
+            } else if (expectedMillis != null && elapsed < expectedMillis * 1.5) {
+                sleep = waitMinPollMillis; // around the expected time, poll fast
+            } else {
+                sleep = interval;
+                interval = Math.min((long) (interval * waitBackoffFactor), waitMaxPollMillis);
+            }
+            sleep(Math.max(1, Math.min(sleep, timeoutMillis - elapsed)));
+        }
+    }
+
+    /**
+     * <b>Returns the number of polls made by this wait.</b>
+     *
+     * @return the number of times the condition was evaluated.
+     */
+    public int getPolls() {
+        return polls;
+    }
+
+    private static String aliasOf(WebElement element) {
+        CompiledLocator locator = WebElementProxyHandler.locatorOf(element);
+        return locator == null ? null : locator.alias();
+    }
+
+    private Double expectedMillis() {
+        if (alias == null) {
+            return null;
+        }
+        synchronized (WaitEngine.class) {
+            return expectedMillisByAlias.get(alias);
+        }
+    }
+
+    private void recordSuccess(long millis) {
+        synchronized (WaitEngine.class) {
+            successfulWaits++;
+            successfulPolls += polls;
+            if (alias != null) {
+                expectedMillisByAlias.merge(alias, (double) millis, (previous, latest) -> SMOOTHING * latest + (1 - SMOOTHING) * previous);
+            }
+        }
+    }
+
+    private void recordFailure() {
+        synchronized (WaitEngine.class) {
+            failedWaits++;
+            failedPolls += polls;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException(e);
+        }
+    }
+
+    /**
+     * <b>Logs the polling statistics and resets the counters.</b>
+     */
+    public static synchronized void logStatistics() {
+        if (successfulWaits == 0 && failedWaits == 0) {
+            return;
+        }
+        String pollsPerFind = successfulWaits == 0 ? "-" : String.format("%.2f", (double) successfulPolls / successfulWaits);
+        logInfo("Wait engine: " + successfulWaits + " successful waits (" + pollsPerFind + " polls per find), "
+                + failedWaits + " timeouts (" + failedPolls + " polls)");
+        successfulWaits = 0;
+        successfulPolls = 0;
+        failedWaits = 0;
+        failedPolls = 0;
+    }
+}
@@ -0,0 +1,74 @@
+package utilities;
+
+import org.openqa.selenium.WebElement;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <b>The result of a composite wait on several aliased elements.</b>
+ * <p>It tells which elements fired the condition, in the order they were passed, and how long the wait took.</p>
+ */
+public class WaitOutcome {
+
+    private final String condition;
+    private final boolean satisfied;
+    private final List<WebElement> fired;
+    private final List<String> firedAliases;
+    private final long millis;
+
+    public WaitOutcome(String condition, boolean satisfied, List<WebElement> fired, List<String> firedAliases, long millis) {
+        this.condition = condition;
+        this.satisfied = satisfied;
+        this.fired = Collections.unmodifiableList(fired);
+        this.firedAliases = Collections.unmodifiableList(firedAliases);
+        this.millis = millis;
+    }
+
+    public boolean isSatisfied() {
+        return satisfied;
+    }
+
+    /**
+     * <b>Checks if an element was displayed when the wait finished.</b>
+     * <p>Elements are compared by identity, so the check does not trigger a lookup through the proxy.</p>
+     *
+     * @param element the aliased WebElement passed to the wait.
+     * @return true if the element fired the condition.
+     */
+    public boolean fired(WebElement element) {
+        for (WebElement firedElement : fired) {
+            if (firedElement == element) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <b>Returns the first element that fired the condition.</b>
+     *
+     * @return the element, or null if nothing was displayed.
+     */
+    public WebElement getFirst() {
+        return fired.isEmpty() ? null : fired.get(0);
+    }
+
+    public List<WebElement> getFired() {
+        return fired;
+    }
+
+    public List<String> getFiredAliases() {
+        return firedAliases;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    @Override
+    public String toString() {
+        return condition + (satisfied ? " fired after " : " not met after ") + millis + " ms"
+                + (firedAliases.isEmpty() ? "" : " | Displayed: " + String.join(", ", firedAliases));
+    }
+}
@@ -1,104 +1,203 @@
 package utilities;
 
-import io.appium.java_client.AppiumBy;
-import io.appium.java_client.android.AndroidDriver;
-import io.appium.java_client.pagefactory.AndroidFindBy;
-import org.openqa.selenium.By;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
 
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Set;
 
-import static common.AppiumUtils.logError;
+import static common.Core.elementProxyBackend;
 
 /**
  * <b> This class creates a dynamic proxy for WebElement fields, deferring the actual lookup until the element is accessed.<br></b>
- * <p>Proxy handler for WebElement to defer element lookup until accessed.</p>
+ * <p>Proxy handler for WebElement to defer element lookup until accessed.
+ * With the <code>elementCache</code> config enabled, the located element is reused until the screen changes or the element goes stale (see {@link ElementCache}).</p>
  */
 public class WebElementProxyHandler implements InvocationHandler {
-    private final AndroidDriver driver;
-    private final AndroidFindBy androidFindBy;
-    private final String currentAlias;
+    private final AppiumDriver driver;
+    private final CompiledLocator locator;
+    private final String quotedAlias;
+    private WebElement cachedElement;
+    private long cachedGeneration = -1;
+    private static final Set<String> INTERACTIONS = Set.of("click", "submit", "sendKeys", "clear");
     public static String alias = "";
     public static String locatorDetails = "";
 
     /**
      * Constructor for WebElementProxyHandler.
      *
-     * @param driver        the AndroidDriver instance used to interact with elements.
-     * @param androidFindBy the AndroidFindBy annotation containing the locator strategy.
-     * @param currentAlias  the alias name for the current WebElement.
+     * @param driver  the AppiumDriver instance used to interact with elements, Android or iOS.
+     * @param locator the compiled locator of the current WebElement.
      */
-    public WebElementProxyHandler(AndroidDriver driver, AndroidFindBy androidFindBy, String currentAlias) {
+    public WebElementProxyHandler(AppiumDriver driver, CompiledLocator locator) {
         this.driver = driver;
-        this.androidFindBy = androidFindBy;
-        this.currentAlias = currentAlias;
+        this.locator = locator;
+        this.quotedAlias = ("'" + locator.alias() + "'").intern();
     }
 
     /**
-     * <b>Finds the WebElement based on the AndroidFindBy locator strategy.</b>
+     * <b>Finds the WebElement based on the compiled locator and records the latency in the LocatorProfiler.</b>
      *
      * @return the located WebElement.
-     * @throws IllegalArgumentException if the locator type is unsupported.
      */
     private WebElement findElement() {
-        if (!androidFindBy.id().isEmpty()) {
-            return driver.findElement(By.id(androidFindBy.id()));
-        } else if (!androidFindBy.xpath().isEmpty()) {
-            return driver.findElement(By.xpath(androidFindBy.xpath()));
-        } else if (!androidFindBy.accessibility().isEmpty()) {
-            return driver.findElement(new AppiumBy.ByAccessibilityId(androidFindBy.accessibility()));
-        } else if (!androidFindBy.className().isEmpty()) {
-            return driver.findElement(By.className(androidFindBy.className()));
-        } else if (!androidFindBy.uiAutomator().isEmpty()) {
-            return driver.findElement(AppiumBy.androidUIAutomator(androidFindBy.uiAutomator()));
-        } else if (!androidFindBy.tagName().isEmpty()) {
-            return driver.findElement(By.tagName(androidFindBy.tagName()));
-        } else {
-            logError("Unsupported locator type. Pass one of the following - \n" +
-                    "1. id\n" +
-                    "2. xpath\n" +
-                    "3. tagName\n" +
-                    "4. className\n" +
-                    "5. uiAutomator\n" +
-                    "6. accessibility\n");
+        if (locator.hasFallbacks()) {
+            return TimeoutManager.find(this::findWithFallbacks);
         }
-        throw new IllegalArgumentException("Unsupported locator type");
+        return TimeoutManager.find(() -> {
+            long start = System.nanoTime();
+            boolean found = false;
+            try {
+                WebElement element = locate(locator);
+                found = true;
+                return element;
+            } finally {
+                LocatorProfiler.recordFind(locator, System.nanoTime() - start, found);
+            }
+        });
+    }
+
+    /**
+     * <b>Looks up a single strategy in the context it belongs to.</b>
+     *
+     * @param candidate the locator strategy.
+     * @return the located WebElement.
+     * @throws NoSuchElementException if the strategy does not match.
+     */
+    private WebElement locate(CompiledLocator candidate) {
+        if (candidate.isFlutter()) {
+            return FlutterFinder.locate(driver, candidate.value());
+        }
+        ContextManager.ensure(driver, ContextManager.NATIVE_APP);
+        return driver.findElement(candidate.by());
+    }
+
+    /**
+     * <b>Tries the strategies of the locator once, in the order learned by the StrategyRanking.</b>
+     * <p>The server-side implicit wait is zero (see {@link TimeoutManager}), so a broken strategy costs a single request before the next one is
+     * tried. If no candidate matches, a NoSuchElementException is thrown and the surrounding wait keeps polling.</p>
+     *
+     * @return the element found by the first matching candidate.
+     * @throws NoSuchElementException if none of the candidates match.
+     */
+    private WebElement findWithFallbacks() {
+        List<CompiledLocator> candidates = StrategyRanking.order(locator);
+        for (int i = 0; i < candidates.size(); i++) {
+            CompiledLocator candidate = candidates.get(i);
+            long start = System.nanoTime();
+            WebElement element = probe(candidate);
+            long nanos = System.nanoTime() - start;
+            LocatorProfiler.recordFind(candidate, nanos, element != null);
+            if (element != null) {
+                StrategyRanking.recordSuccess(locator, candidate, nanos);
+                // The candidates tried before this one are broken for the current screen
+                for (CompiledLocator failed : candidates.subList(0, i)) {
+                    StrategyRanking.recordFailure(locator, failed);
+                }
+                return element;
+            }
+        }
+        throw new NoSuchElementException("None of the " + candidates.size() + " locator strategies matched '" + locator.alias() + "'");
+    }
+
+    /**
+     * <b>Probes a single strategy without failing.</b>
+     *
+     * @param candidate the locator strategy.
+     * @return the first matching element, or null if the strategy does not match.
+     */
+    private WebElement probe(CompiledLocator candidate) {
+        if (candidate.isFlutter()) {
+            try {
+                return FlutterFinder.locate(driver, candidate.value());
+            } catch (NoSuchElementException e) {
+                return null;
+            }
+        }
+        ContextManager.ensure(driver, ContextManager.NATIVE_APP);
+        List<WebElement> elements = driver.findElements(candidate.by());
+        return elements.isEmpty() ? null : elements.get(0);
+    }
+
+    /**
+     * <b>Returns the element to invoke the method on, reusing the cached one when the element cache allows it.</b>
+     * <p>This also stores the locator details of the element for logging.</p>
+     *
+     * @return the cached or freshly located WebElement.
+     */
+    WebElement resolveElement() {
+        locatorDetails = locator.description();  // Store locator details
+        if (!ElementCache.isEnabled()) {
+            return findElement();
+        }
+        if (cachedElement != null && ElementCache.isCurrent(cachedGeneration)) {
+            ElementCache.recordHit();
+            return cachedElement;
+        }
+        ElementCache.recordMiss();
+        cachedElement = findElement();
+        cachedGeneration = ElementCache.generation();
+        return cachedElement;
+    }
+
+    /**
+     * <b>Drops the cached element after it went stale, so the call can be retried once with a fresh lookup.</b>
+     *
+     * @param exception the exception thrown by the element.
+     * @return true if the call should be retried.
+     */
+    boolean evictIfStale(Throwable exception) {
+        if (!(exception instanceof StaleElementReferenceException) || cachedElement == null) {
+            return false;
+        }
+        ElementCache.recordStaleRetry();
+        cachedElement = null;
+        return true;
+    }
+
+    /**
+     * <b>Completes a call on the element: invalidates the screen after interactions and publishes the alias for logging.</b>
+     *
+     * @param methodName the name of the WebElement method that was called.
+     */
+    void afterCall(String methodName) {
+        if (INTERACTIONS.contains(methodName)) {
+            ElementCache.invalidateScreen();
+        }
+        alias = quotedAlias;
+    }
+
+    /**
+     * <b>Returns the compiled locator of this element.</b>
+     *
+     * @return the compiled locator.
+     */
+    public CompiledLocator getLocator() {
+        return locator;
     }
 
     /**
-     * <b>Returns a description of the element based on the locator strategy.</b>
-     * <p>EDIT: Commented out Alias information, so now this returns only the locator</p>
+     * <b>Returns the compiled locator behind an aliased WebElement.</b>
      *
-     * @return a string description of the locator.
+     * @param element the WebElement created by {@link #createProxy}.
+     * @return the compiled locator, or null if the element is not an aliased element.
      */
-    private String getElementDescription() {
-//        StringBuilder description = new StringBuilder("Alias- " + currentAlias + " | "); // to get alias as well
-        StringBuilder description = new StringBuilder("");
-        if (!androidFindBy.id().isEmpty()) {
-            description.append("Locator: By.id(\"").append(androidFindBy.id()).append("\")");
-        } else if (!androidFindBy.xpath().isEmpty()) {
-            description.append("Locator: By.xpath(\"").append(androidFindBy.xpath()).append("\")");
-        } else if (!androidFindBy.accessibility().isEmpty()) {
-            description.append("Locator: AppiumBy.ByAccessibilityId(\"").append(androidFindBy.accessibility()).append("\")");
-        } else if (!androidFindBy.className().isEmpty()) {
-            description.append("Locator: By.className(\"").append(androidFindBy.className()).append("\")");
-        } else if (!androidFindBy.uiAutomator().isEmpty()) {
-            description.append("Locator: AppiumBy.androidUIAutomator(\"").append(androidFindBy.uiAutomator()).append("\")");
-        } else if (!androidFindBy.tagName().isEmpty()) {
-            description.append("Locator: By.tagName(\"").append(androidFindBy.tagName()).append("\")");
-        } else {
-            description.append("Unsupported locator type");
-            logError("Unsupported locator type. Valid ones - \n" +
-                    "1. id\n" +
-                    "2. xpath\n" +
-                    "3. tagName\n" +
-                    "4. className\n" +
-                    "5. uiAutomator\n" +
-                    "6. accessibility\n");
+    public static CompiledLocator locatorOf(WebElement element) {
+        if (element instanceof AliasedWebElement) {
+            return ((AliasedWebElement) element).getLocator();
         }
-        return description.toString();
+        if (element != null && Proxy.isProxyClass(element.getClass())
+                && Proxy.getInvocationHandler(element) instanceof WebElementProxyHandler) {
+            return ((WebElementProxyHandler) Proxy.getInvocationHandler(element)).getLocator();
+        }
+        return null;
     }
 
     /**
@@ -112,32 +211,56 @@ public class WebElementProxyHandler implements InvocationHandler {
      */
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable, Exception {
+        // Compare proxies by identity, so using them as map keys or in collections does not look the element up
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
         try {
             if (method.getName().equals("toString")) {
-                return getElementDescription();
+                return locator.description();
+            }
+            if (method.getName().equals("getWrappedElement")) {
+                return resolveElement();
+            }
+//            logInfo("Accessing element with alias: " + locator.alias()); // DEBUG
+            try {
+                return method.invoke(resolveElement(), args);
+            } catch (InvocationTargetException e) {
+                if (!evictIfStale(e.getCause())) {
+                    throw e.getCause();
+                }
+                // The cached element id went stale, locate it again and retry once
+                try {
+                    return method.invoke(resolveElement(), args);
+                } catch (InvocationTargetException retryException) {
+                    throw retryException.getCause();
+                }
             }
-            WebElement webElement = findElement();
-            locatorDetails = getElementDescription();  // Store locator details
-//            logInfo("Accessing element with alias: " + currentAlias); // DEBUG
-            return method.invoke(webElement, args);
         } finally {
-            alias = "'" + currentAlias + "'";
+            afterCall(method.getName());
         }
     }
 
     /**
      * <b>Creates a proxy for the WebElement.</b>
+     * <p>The <code>elementProxyBackend</code> config selects the implementation: <code>reflect</code> (default) creates a
+     * java.lang.reflect.Proxy, <code>direct</code> creates an {@link AliasedWebElement} that calls the target element without reflection.</p>
      *
-     * @param driver        the AndroidDriver instance used to interact with elements.
-     * @param androidFindBy the AndroidFindBy annotation containing the locator strategy.
-     * @param alias         the alias name for the current WebElement.
+     * @param driver  the AppiumDriver instance used to interact with elements, Android or iOS.
+     * @param locator the compiled locator of the WebElement.
      * @return a proxy instance for the WebElement.
      */
-    public static WebElement createProxy(AndroidDriver driver, AndroidFindBy androidFindBy, String alias) {
+    public static WebElement createProxy(AppiumDriver driver, CompiledLocator locator) {
+        if ("direct".equalsIgnoreCase(elementProxyBackend)) {
+            return new AliasedWebElement(new WebElementProxyHandler(driver, locator));
+        }
         return (WebElement) Proxy.newProxyInstance(
                 WebElement.class.getClassLoader(),
-                new Class[]{WebElement.class},
-                new WebElementProxyHandler(driver, androidFindBy, alias)
+                new Class[]{WebElement.class, WrapsElement.class},
+                new WebElementProxyHandler(driver, locator)
         );
     }
 }
@@ -15,9 +15,6 @@ public class FooterBar extends AndroidActions {
     }
 
     public void lookForFooterElements() {
-        findElement(ico_home, 5, driver);
-        findElement(ico_settings, 5, driver);
-        findElement(ico_hamburgerMenu, 5, driver);
-        findElement(ico_bell, 5, driver);
+        verifyElementsDisplayed(driver, 5, ico_home, ico_settings, ico_hamburgerMenu, ico_bell);
     }
 }
\ No newline at end of file
@@ -16,8 +16,7 @@ public class LandingScreen extends AndroidActions {
     }
 
     public void lookForAllHeaders() {
-        findElement(hdr_whatsNew, 5, driver);
-        findElement(hdr_myAchievements, 5, driver);
+        verifyElementsDisplayed(driver, 5, hdr_whatsNew, hdr_myAchievements);
         scrollToFindElement(hdr_myUplines, "down");
         scrollToFindElement(hdr_myInfluencerStatus, "down");
     }
@@ -37,9 +36,7 @@ public class LandingScreen extends AndroidActions {
 
 
     public void swipeSliderActions() {
-        swipe(slider_teamDash, "LEFT");
-        findElement(slider_quickLinks, 5, driver);
-        swipe(slider_quickLinks, "LEFT");
-        findElement(slider_whatsNew, 5, driver);
+        swipe(slider_teamDash, "LEFT", 1, slider_quickLinks);
+        swipe(slider_quickLinks, "LEFT", 1, slider_whatsNew);
     }
 }
@@ -16,12 +16,17 @@ public class LoginScreen extends AndroidActions {
 
     public void login(String username, String password) {
         tap(btn_signIn, driver);
-        tap(btn_dismissChromeStartup, driver);
+        // The Chrome first-run dialog only shows up on a fresh emulator
+        if (waitForFirst(driver, elementLoadWait, btn_dismissChromeStartup, lbl_signIn).fired(btn_dismissChromeStartup)) {
+            tap(btn_dismissChromeStartup, driver);
+        }
         getText(lbl_signIn, driver);
         write(txt_username, username, driver);
         tap(btn_next, driver);
         findElement(lbl_passwordScreen, driver);
         dismissKeyboard();
+        // The password field moves while the keyboard slides away
+        waitForIdle(driver, smallWait);
         writePassword(txt_password, password, driver);
         tap(btn_verify, driver);
         findElement(hdr_whatsNew, driver);
@@ -0,0 +1,111 @@
+package annotations.processing;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * <b>Runs the LocatorRegistryProcessor on small page classes and checks the generated registry and the compile errors.</b>
+ * <p>The page classes are compiled in memory with <code>-proc:only</code>, so the generated registry is only written, not compiled.</p>
+ */
+public class LocatorRegistryProcessorTest {
+
+    private static final String PAGE_HEADER = "package pages;\n\n"
+            + "import annotations.*;\n"
+            + "import io.appium.java_client.pagefactory.AndroidFindBy;\n\n"
+            + "public class Page {\n";
+
+    @Test
+    public void generatesCandidatesInCompileOrder() throws IOException {
+        Path generated = Files.createTempDirectory("registry");
+        List<String> errors = process(generated, PAGE_HEADER
+                + "    @AndroidFindByWithAlias(alias = \"Logo\", flutterFindBy = @FlutterFindBy(valueKey = \"42\", valueKeyType = \"int\"),\n"
+                + "            androidFindBy = @AndroidFindBy(id = \"logo\"), fallbacks = {@AndroidFindBy(xpath = \"//logo\")})\n"
+                + "    public static Object logo;\n"
+                + "}\n");
+
+        Assert.assertTrue(errors.isEmpty(), errors.toString());
+        String registry = Files.readString(generated.resolve("pages/PageRegistry.java"));
+        Assert.assertTrue(registry.contains("CompiledLocator.of(\"flutter\", FlutterFinder.encode(FlutterFinder.firstOf(\"42\", \"int\", \"\", \"\", \"\", \"\")), \"Logo\")"
+                + ".withFallbacks(CompiledLocator.of(\"id\", \"logo\", \"Logo\"), CompiledLocator.of(\"xpath\", \"//logo\", \"Logo\"))"), registry);
+    }
+
+    @Test
+    public void namesRegistriesOfNestedPagesAfterTheirOuterClass() throws IOException {
+        Path generated = Files.createTempDirectory("registry");
+        List<String> errors = process(generated, PAGE_HEADER
+                + "    public static class Login {\n"
+                + "        @AndroidFindByWithAlias(alias = \"Logo\", androidFindBy = @AndroidFindBy(id = \"logo\"))\n"
+                + "        public Object logo;\n"
+                + "    }\n"
+                + "}\n");
+
+        Assert.assertTrue(errors.isEmpty(), errors.toString());
+        String registry = Files.readString(generated.resolve("pages/Page_LoginRegistry.java"));
+        Assert.assertTrue(registry.contains("public final class Page_LoginRegistry"), registry);
+        Assert.assertTrue(registry.contains("register(AppiumDriver driver, pages.Page.Login page)"), registry);
+    }
+
+    @Test
+    public void reportsNonNumericIntKeyAsCompileError() throws IOException {
+        List<String> errors = process(Files.createTempDirectory("registry"), PAGE_HEADER
+                + "    @AndroidFindByWithAlias(alias = \"Login\", flutterFindBy = @FlutterFindBy(valueKey = \"login\", valueKeyType = \"int\"))\n"
+                + "    public static Object login;\n"
+                + "}\n");
+
+        Assert.assertTrue(errors.stream().anyMatch(error -> error.contains("'login' is not an int")), errors.toString());
+    }
+
+    @Test
+    public void reportsPrivateFieldAsCompileError() throws IOException {
+        List<String> errors = process(Files.createTempDirectory("registry"), PAGE_HEADER
+                + "    @AndroidFindByWithAlias(alias = \"Logo\", androidFindBy = @AndroidFindBy(id = \"logo\"))\n"
+                + "    private static Object logo;\n"
+                + "}\n");
+
+        Assert.assertTrue(errors.stream().anyMatch(error -> error.contains("must not be private")), errors.toString());
+    }
+
+    /**
+     * <b>Runs the processor on one page class.</b>
+     *
+     * @param generated  the folder the registry is written to.
+     * @param pageSource the source of <code>pages.Page</code>.
+     * @return the errors reported on the page class, i.e. by the processor.
+     */
+    private static List<String> process(Path generated, String pageSource) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        String classPath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+        List<String> options = Arrays.asList("-proc:only", "-classpath", classPath, "-s", generated.toString());
+        JavaFileObject page = new SimpleJavaFileObject(URI.create("string:///pages/Page.java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return pageSource;
+            }
+        };
+        JavaCompiler.CompilationTask task = compiler.getTask(null, compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8),
+                diagnostics, options, null, Collections.singletonList(page));
+        task.setProcessors(Collections.singletonList(new LocatorRegistryProcessor()));
+        task.call();
+        return diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR && diagnostic.getSource() == page)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .collect(Collectors.toList());
+    }
+}
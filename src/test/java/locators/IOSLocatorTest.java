@@ -0,0 +1,123 @@
+package locators;
+
+import annotations.IOSFindByAlias;
+import common.Core;
+import io.appium.java_client.ios.IOSDriver;
+import io.appium.java_client.pagefactory.iOSXCUITFindBy;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utilities.CompiledLocator;
+import utilities.ContextManager;
+import utilities.ElementState;
+import utilities.IOSStubDriver;
+import utilities.PageSnapshot;
+import utilities.StubElement;
+import utilities.WebElementProxyHandler;
+
+/**
+ * <b>Device-free tests of iOS page objects against an {@link IOSStubDriver}: aliased lookups and the XCUITest snapshot attributes.</b>
+ */
+public class IOSLocatorTest {
+
+    private static final String PAGE_SOURCE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<AppiumAUT>"
+            + "<XCUIElementTypeApplication type=\"XCUIElementTypeApplication\" name=\"Shop\" enabled=\"true\" visible=\"true\" x=\"0\" y=\"0\" width=\"390\" height=\"844\">"
+            + "<XCUIElementTypeButton type=\"XCUIElementTypeButton\" name=\"login_button\" label=\"Log in\" enabled=\"true\" visible=\"true\" x=\"45\" y=\"700\" width=\"300\" height=\"44\"/>"
+            + "<XCUIElementTypeStaticText type=\"XCUIElementTypeStaticText\" name=\"promo_banner\" label=\"Sale\" value=\"50% off\" enabled=\"false\" visible=\"false\" x=\"0\" y=\"900\" width=\"390\" height=\"120\"/>"
+            + "</XCUIElementTypeApplication>"
+            + "</AppiumAUT>";
+
+    private boolean elementCache;
+
+    public static class LoginScreen extends IOSLocator {
+        @IOSFindByAlias(@iOSXCUITFindBy(accessibility = "login_button"))
+        public WebElement loginButton;
+
+        @IOSFindByAlias(value = @iOSXCUITFindBy(id = "promo_banner"), alias = "Promo banner")
+        public WebElement promoBanner;
+
+        @iOSXCUITFindBy(accessibility = "help")
+        public WebElement helpLink;
+
+        public LoginScreen(IOSDriver driver) {
+            super(driver);
+        }
+    }
+
+    @BeforeMethod
+    public void disableElementCache() {
+        elementCache = Core.elementCache;
+        Core.elementCache = false;
+        ContextManager.reset();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restoreElementCache() {
+        Core.elementCache = elementCache;
+    }
+
+    @Test
+    public void aliasedFieldsAreLookedUpThroughTheDriver() {
+        IOSStubDriver driver = new IOSStubDriver().element(new StubElement("Log in"));
+        LoginScreen screen = new LoginScreen(driver);
+
+        Assert.assertEquals(screen.loginButton.getText(), "Log in");
+
+        CompiledLocator locator = WebElementProxyHandler.locatorOf(screen.loginButton);
+        Assert.assertEquals(locator.strategy(), "accessibility");
+        Assert.assertEquals(driver.lookups().size(), 1);
+        Assert.assertSame(driver.lookups().get(0), locator.by());
+    }
+
+    @Test
+    public void aliasDefaultsToTheFieldName() {
+        LoginScreen screen = new LoginScreen(new IOSStubDriver());
+
+        Assert.assertEquals(WebElementProxyHandler.locatorOf(screen.loginButton).alias(), "loginButton");
+        Assert.assertEquals(WebElementProxyHandler.locatorOf(screen.promoBanner).alias(), "Promo banner");
+    }
+
+    @Test
+    public void plainIOSFieldsAreStillInitializedByThePageFactory() {
+        LoginScreen screen = new LoginScreen(new IOSStubDriver());
+
+        Assert.assertNotNull(screen.helpLink);
+        Assert.assertNull(WebElementProxyHandler.locatorOf(screen.helpLink));
+    }
+
+    @Test
+    public void missingElementFollowsTheFindContract() {
+        LoginScreen screen = new LoginScreen(new IOSStubDriver());
+
+        Assert.assertThrows(NoSuchElementException.class, () -> screen.loginButton.click());
+    }
+
+    @Test
+    public void snapshotMapsXCUITestAttributes() {
+        IOSStubDriver driver = new IOSStubDriver().pageSource(PAGE_SOURCE);
+        LoginScreen screen = new LoginScreen(driver);
+        PageSnapshot snapshot = PageSnapshot.capture(driver);
+
+        ElementState login = ElementState.capture(screen.loginButton, snapshot);
+        Assert.assertEquals(login.getRect(), new Rectangle(45, 700, 44, 300));
+        Assert.assertEquals(login.getRect().getWidth(), 300);
+        Assert.assertEquals(login.getRect().getHeight(), 44);
+        Assert.assertTrue(login.isDisplayed());
+        Assert.assertTrue(login.isEnabled());
+        Assert.assertEquals(login.getText(), "Log in");
+        Assert.assertEquals(login.getContentDesc(), "login_button");
+
+        ElementState banner = ElementState.capture(screen.promoBanner, snapshot);
+        Assert.assertFalse(banner.isDisplayed());
+        Assert.assertFalse(banner.isEnabled());
+        Assert.assertEquals(banner.getText(), "50% off");
+        Assert.assertFalse(snapshot.isDisplayed(WebElementProxyHandler.locatorOf(screen.promoBanner)));
+
+        Assert.assertTrue(driver.lookups().isEmpty(), "The snapshot must answer without element lookups");
+    }
+}
@@ -0,0 +1,122 @@
+package utilities;
+
+import common.Core;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static common.AppiumUtils.logInfo;
+
+/**
+ * <b>Device-free tests of the two element backends, reflect and direct, against a {@link StubDriver}.</b>
+ * <p>The timing test runs with the element cache on, so it measures the dispatch of a WebElement call and not the lookup.</p>
+ */
+public class AliasedWebElementTest {
+
+    private static final int CALLS = 200_000;
+
+    private final CompiledLocator locator = CompiledLocator.of("id", "btn_login", "Login button");
+    private String backend;
+    private boolean elementCache;
+
+    @BeforeMethod
+    public void rememberConfig() {
+        backend = Core.elementProxyBackend;
+        elementCache = Core.elementCache;
+        Core.elementCache = false;
+        ContextManager.reset();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restoreConfig() {
+        Core.elementProxyBackend = backend;
+        Core.elementCache = elementCache;
+    }
+
+    @Test
+    public void configSelectsTheBackend() {
+        StubDriver driver = new StubDriver();
+
+        Core.elementProxyBackend = "direct";
+        Assert.assertTrue(WebElementProxyHandler.createProxy(driver, locator) instanceof AliasedWebElement);
+
+        Core.elementProxyBackend = "reflect";
+        Assert.assertTrue(Proxy.isProxyClass(WebElementProxyHandler.createProxy(driver, locator).getClass()));
+    }
+
+    @Test
+    public void bothBackendsBehaveAlike() {
+        for (String name : new String[]{"reflect", "direct"}) {
+            Core.elementProxyBackend = name;
+            StubElement target = new StubElement("Log in");
+            WebElement element = WebElementProxyHandler.createProxy(new StubDriver().element(target), locator);
+
+            Assert.assertEquals(element.getText(), "Log in", name);
+            element.click();
+            Assert.assertEquals(target.clicks(), 1, name);
+            Assert.assertSame(((WrapsElement) element).getWrappedElement(), target, name);
+            Assert.assertSame(WebElementProxyHandler.locatorOf(element), locator, name);
+            Assert.assertEquals(element.toString(), locator.description(), name);
+            Assert.assertEquals(WebElementProxyHandler.alias, "'Login button'", name);
+        }
+    }
+
+    @Test
+    public void bothBackendsCompareByIdentityWithoutALookup() {
+        for (String name : new String[]{"reflect", "direct"}) {
+            Core.elementProxyBackend = name;
+            StubDriver driver = new StubDriver();
+            WebElement element = WebElementProxyHandler.createProxy(driver, locator);
+            WebElement other = WebElementProxyHandler.createProxy(driver, locator);
+
+            Map<WebElement, Boolean> results = new LinkedHashMap<>();
+            results.put(element, true);
+            results.put(other, false);
+
+            Assert.assertEquals(results.size(), 2, name);
+            Assert.assertTrue(results.get(element), name);
+            Assert.assertEquals(element.hashCode(), System.identityHashCode(element), name);
+            Assert.assertNotEquals(element, other, name);
+            Assert.assertTrue(driver.lookups().isEmpty(), name);
+        }
+    }
+
+    @Test
+    public void timesTheDispatchOfBothBackends() {
+        Core.elementCache = true;
+        StubDriver driver = new StubDriver().element(new StubElement("Log in"));
+        Core.elementProxyBackend = "reflect";
+        WebElement reflect = WebElementProxyHandler.createProxy(driver, locator);
+        Core.elementProxyBackend = "direct";
+        WebElement direct = WebElementProxyHandler.createProxy(driver, locator);
+
+        long reflectNanos = 0;
+        long directNanos = 0;
+        int sink = 0;
+        for (int round = 0; round < 3; round++) { // the first rounds warm up the JIT
+            long start = System.nanoTime();
+            for (int i = 0; i < CALLS; i++) {
+                sink += reflect.getText().length();
+            }
+            reflectNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < CALLS; i++) {
+                sink += direct.getText().length();
+            }
+            directNanos = System.nanoTime() - start;
+        }
+
+        logInfo(String.format("Element call overhead | reflect: %.1f ns | direct: %.1f ns | (%d)",
+                (double) reflectNanos / CALLS, (double) directNanos / CALLS, sink));
+        Assert.assertEquals(sink, 2 * 3 * CALLS * "Log in".length());
+        Assert.assertEquals(driver.lookups().size(), 2, "Both elements should be looked up once and then served from the cache");
+    }
+}
@@ -0,0 +1,89 @@
+package utilities;
+
+import annotations.AndroidFindByWithAlias;
+import common.Core;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * <b>Device-free tests of the locators compiled by the AnnotationProcessor, against a {@link StubDriver}.</b>
+ */
+public class AnnotationProcessorTest {
+
+    private boolean elementCache;
+
+    public static class LoginPage {
+        @AndroidFindByWithAlias(alias = "Login button", androidFindBy = @AndroidFindBy(id = "btn_login"))
+        public WebElement loginButton;
+
+        public WebElement notAnnotated;
+    }
+
+    public static class BrokenPage {
+        @AndroidFindByWithAlias(alias = "Broken")
+        public WebElement broken;
+
+        @AndroidFindByWithAlias(alias = "Login button", androidFindBy = @AndroidFindBy(id = "btn_login"))
+        public WebElement loginButton;
+    }
+
+    @BeforeMethod
+    public void disableElementCache() {
+        elementCache = Core.elementCache;
+        Core.elementCache = false;
+        ContextManager.reset();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restoreElementCache() {
+        Core.elementCache = elementCache;
+    }
+
+    @Test
+    public void injectsProxiesBuiltFromOneCompiledLocator() {
+        StubDriver driver = new StubDriver().element(new StubElement("Log in"));
+        LoginPage page = new LoginPage();
+
+        new AnnotationProcessor(driver).processAnnotations(page);
+
+        Assert.assertNotNull(page.loginButton);
+        Assert.assertNull(page.notAnnotated);
+        CompiledLocator locator = WebElementProxyHandler.locatorOf(page.loginButton);
+        Assert.assertNotNull(locator);
+        Assert.assertEquals(locator.alias(), "Login button");
+        Assert.assertEquals(page.loginButton.getText(), "Log in");
+        Assert.assertEquals(page.loginButton.getText(), "Log in");
+        Assert.assertSame(WebElementProxyHandler.locatorDetails, locator.description());
+        Assert.assertEquals(WebElementProxyHandler.alias, "'Login button'");
+    }
+
+    @Test
+    public void everyLookupReusesThePrebuiltBy() {
+        StubDriver driver = new StubDriver().element(new StubElement("Log in"));
+        LoginPage page = new LoginPage();
+        new AnnotationProcessor(driver).processAnnotations(page);
+
+        page.loginButton.click();
+        page.loginButton.click();
+
+        Assert.assertEquals(driver.lookups().size(), 2);
+        for (By by : driver.lookups()) {
+            Assert.assertSame(by, WebElementProxyHandler.locatorOf(page.loginButton).by());
+        }
+    }
+
+    @Test
+    public void brokenLocatorDoesNotStopTheOtherFields() {
+        BrokenPage page = new BrokenPage();
+
+        new AnnotationProcessor(new StubDriver()).processAnnotations(page);
+
+        Assert.assertNull(page.broken);
+        Assert.assertNotNull(page.loginButton);
+    }
+}
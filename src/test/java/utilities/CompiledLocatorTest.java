@@ -0,0 +1,72 @@
+package utilities;
+
+import annotations.AndroidFindByWithAlias;
+import annotations.FlutterFindBy;
+import annotations.FlutterMatch;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * <b>Device-free tests of the candidate order of compiled locators.</b>
+ * <p>A Flutter finder comes first, then the androidFindBy, then the declared fallbacks in declaration order.</p>
+ */
+public class CompiledLocatorTest {
+
+    @AndroidFindByWithAlias(alias = "Login button",
+            flutterFindBy = @FlutterFindBy(valueKey = "login"),
+            androidFindBy = @AndroidFindBy(id = "btn_login"),
+            fallbacks = {@AndroidFindBy(accessibility = "Login"), @AndroidFindBy(xpath = "//*[@text='Login']")})
+    WebElement flutterFirst;
+
+    @AndroidFindByWithAlias(alias = "Logout", flutterFindBy = @FlutterFindBy(text = "Logout", descendantOf = @FlutterMatch(type = "Drawer")))
+    WebElement flutterOnly;
+
+    @AndroidFindByWithAlias(alias = "Header", androidFindBy = @AndroidFindBy(id = "hdr"), fallbacks = {@AndroidFindBy(className = "android.widget.TextView")})
+    WebElement nativeOnly;
+
+    @Test
+    public void flutterFinderComesFirstThenAndroidFindByThenFallbacks() throws NoSuchFieldException {
+        CompiledLocator locator = compile("flutterFirst");
+
+        Assert.assertEquals(strategies(locator), List.of("flutter", "id", "accessibility", "xpath"));
+        Assert.assertEquals(locator.strategy(), "flutter");
+        Assert.assertEquals(locator.value(), FlutterFinder.encode(FlutterFinder.byValueKey("login")));
+        Assert.assertEquals(locator.context(), ContextManager.FLUTTER);
+        Assert.assertEquals(locator.candidates().get(1).context(), ContextManager.NATIVE_APP);
+        Assert.assertEquals(locator.candidates().get(3).value(), "//*[@text='Login']");
+        for (CompiledLocator candidate : locator.candidates()) {
+            Assert.assertEquals(candidate.alias(), "Login button");
+        }
+    }
+
+    @Test
+    public void emptyAndroidFindByIsNoFallback() throws NoSuchFieldException {
+        CompiledLocator locator = compile("flutterOnly");
+
+        Assert.assertEquals(strategies(locator), List.of("flutter"));
+        Assert.assertFalse(locator.hasFallbacks());
+        Assert.assertEquals(locator.value(), FlutterFinder.encode(FlutterFinder.descendant(FlutterFinder.byType("Drawer"), FlutterFinder.byText("Logout"))));
+    }
+
+    @Test
+    public void androidFindByIsPrimaryWithoutFlutterFinder() throws NoSuchFieldException {
+        CompiledLocator locator = compile("nativeOnly");
+
+        Assert.assertEquals(strategies(locator), List.of("id", "className"));
+        Assert.assertNotNull(locator.by());
+        Assert.assertEquals(locator.description(), "Locator: By.id(\"hdr\")");
+    }
+
+    private static CompiledLocator compile(String fieldName) throws NoSuchFieldException {
+        return CompiledLocator.compile(CompiledLocatorTest.class.getDeclaredField(fieldName).getAnnotation(AndroidFindByWithAlias.class));
+    }
+
+    private static List<String> strategies(CompiledLocator locator) {
+        return locator.candidates().stream().map(CompiledLocator::strategy).collect(Collectors.toList());
+    }
+}
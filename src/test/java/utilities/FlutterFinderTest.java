@@ -0,0 +1,92 @@
+package utilities;
+
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <b>Device-free tests of the Flutter finder payloads and of the presence checks against a {@link StubDriver}.</b>
+ */
+public class FlutterFinderTest {
+
+    @BeforeMethod
+    public void resetContext() {
+        ContextManager.reset();
+    }
+
+    @Test
+    public void encodesFinderAsBase64Json() {
+        String payload = FlutterFinder.encode(FlutterFinder.byValueKey("login"));
+
+        Assert.assertEquals(FlutterFinder.decode(payload), "{\"finderType\":\"ByValueKey\",\"keyValueString\":\"login\",\"keyValueType\":\"String\"}");
+        Assert.assertEquals(FlutterFinder.fromJson(FlutterFinder.decode(payload)), FlutterFinder.byValueKey("login"));
+    }
+
+    @Test
+    public void byValueKeyKeepsTheKeyType() {
+        Assert.assertEquals(FlutterFinder.byValueKey("42").get("keyValueType"), "String");
+        Map<String, String> intKey = FlutterFinder.byValueKey(42);
+        Assert.assertEquals(intKey.get("keyValueString"), "42");
+        Assert.assertEquals(intKey.get("keyValueType"), "int");
+    }
+
+    @Test
+    public void descendantNestsBothFindersAsJson() {
+        Map<String, String> descendant = FlutterFinder.descendant(FlutterFinder.byType("ListView"), FlutterFinder.byText("Logout"));
+
+        Assert.assertEquals(descendant.get("finderType"), "Descendant");
+        Assert.assertEquals(FlutterFinder.fromJson(descendant.get("of")), FlutterFinder.byType("ListView"));
+        Assert.assertEquals(FlutterFinder.fromJson(descendant.get("matching")), FlutterFinder.byText("Logout"));
+        Assert.assertEquals(descendant.get("matchRoot"), "false");
+    }
+
+    @Test
+    public void firstOfPrefersTheValueKey() {
+        Assert.assertEquals(FlutterFinder.firstOf("7", "int", "", "Logout", "", ""), FlutterFinder.byValueKey(7));
+        Assert.assertEquals(FlutterFinder.firstOf("", "String", "", "Logout", "TextButton", ""), FlutterFinder.byText("Logout"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void firstOfRejectsNonNumericIntKey() {
+        FlutterFinder.firstOf("login", "int", "", "", "", "");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void firstOfRejectsEmptyFinder() {
+        FlutterFinder.firstOf("", "String", "", "", "", "");
+    }
+
+    @Test
+    public void presenceChecksTreatTimeoutsAsNotMet() {
+        StubDriver driver = new StubDriver()
+                .fail("flutter:waitFor", new TimeoutException("waitFor timed out"))
+                .fail("flutter:waitForAbsent", new WebDriverException("Timeout while waiting for the widget to disappear"));
+        String payload = FlutterFinder.encode(FlutterFinder.byValueKey("login"));
+
+        Assert.assertFalse(FlutterFinder.isPresent(driver, payload));
+        Assert.assertFalse(FlutterFinder.isAbsent(driver, payload));
+        Assert.assertEquals(driver.contexts(), List.of(ContextManager.FLUTTER));
+    }
+
+    @Test
+    public void presenceChecksReportAnswersOfTheServer() {
+        StubDriver driver = new StubDriver();
+        String payload = FlutterFinder.encode(FlutterFinder.byValueKey("login"));
+
+        Assert.assertTrue(FlutterFinder.isPresent(driver, payload));
+        Assert.assertTrue(FlutterFinder.isAbsent(driver, payload));
+    }
+
+    @Test(expectedExceptions = NoSuchSessionException.class)
+    public void absenceCheckDoesNotHideALostSession() {
+        StubDriver driver = new StubDriver().fail("flutter:waitForAbsent", new NoSuchSessionException("Session is gone"));
+
+        FlutterFinder.isAbsent(driver, FlutterFinder.encode(FlutterFinder.byValueKey("login")));
+    }
+}
@@ -0,0 +1,77 @@
+package utilities;
+
+import common.Core;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <b>Device-free tests of when FlutterSync waits for the engine, against a {@link StubDriver}.</b>
+ */
+public class FlutterSyncTest {
+
+    private boolean frameSync;
+
+    @BeforeMethod
+    public void rememberConfig() {
+        frameSync = Core.flutterFrameSync;
+        ContextManager.reset();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restoreConfig() {
+        Core.flutterFrameSync = frameSync;
+        ContextManager.reset();
+    }
+
+    @Test
+    public void settleDoesNothingWithoutFrameSync() {
+        Core.flutterFrameSync = false;
+        StubDriver driver = new StubDriver();
+
+        FlutterSync.settle(driver);
+
+        Assert.assertTrue(driver.scripts().isEmpty());
+        Assert.assertTrue(driver.contexts().isEmpty());
+    }
+
+    @Test
+    public void settleWaitsForAnimationsThenForPendingFrames() {
+        Core.flutterFrameSync = true;
+        StubDriver driver = new StubDriver();
+
+        FlutterSync.settle(driver);
+
+        Assert.assertEquals(driver.contexts(), List.of(ContextManager.FLUTTER));
+        Assert.assertEquals(driver.scripts(), List.of("flutter:waitForCondition", "flutter:waitForCondition"));
+        Assert.assertEquals(driver.arguments(), Arrays.asList(Map.of("conditionName", "NoTransientCallbacksCondition"),
+                Map.of("conditionName", "NoPendingFrameCondition")));
+    }
+
+    @Test
+    public void waitForFirstFrameRunsRegardlessOfFrameSync() {
+        Core.flutterFrameSync = false;
+        StubDriver driver = new StubDriver();
+
+        FlutterSync.waitForFirstFrame(driver);
+
+        Assert.assertEquals(driver.scripts(), List.of("flutter:waitForFirstFrame"));
+        Assert.assertEquals(driver.contexts(), List.of(ContextManager.FLUTTER));
+    }
+
+    @Test
+    public void failedWaitIsLoggedAndTheNextOneStillRuns() {
+        Core.flutterFrameSync = true;
+        StubDriver driver = new StubDriver().fail("flutter:waitForCondition", new WebDriverException("Flutter driver extension not registered"));
+
+        FlutterSync.settle(driver);
+
+        Assert.assertEquals(driver.scripts().size(), 2);
+    }
+}
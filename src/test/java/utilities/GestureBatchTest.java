@@ -0,0 +1,77 @@
+package utilities;
+
+import common.Core;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.interactions.Sequence;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <b>Device-free tests of the gestures GestureBatch sends, against a {@link StubDriver}.</b>
+ */
+public class GestureBatchTest {
+
+    private boolean frameSync;
+
+    @BeforeMethod
+    public void disableFrameSync() {
+        frameSync = Core.flutterFrameSync;
+        Core.flutterFrameSync = false;
+        ContextManager.reset();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restoreFrameSync() {
+        Core.flutterFrameSync = frameSync;
+    }
+
+    @Test
+    public void sendsAllGesturesInOnePerformAndVerifiesOnce() {
+        StubDriver driver = new StubDriver();
+        AtomicInteger verifications = new AtomicInteger();
+
+        boolean verified = new GestureBatch(driver)
+                .swipe(900, 500, 100, 500, Duration.ofMillis(300))
+                .pause(Duration.ofMillis(200))
+                .swipe(900, 500, 100, 500, Duration.ofMillis(300))
+                .pinch(new Point(500, 800), 400, 100, Duration.ofMillis(400))
+                .verifyAfter(() -> verifications.incrementAndGet() > 0)
+                .perform();
+
+        Assert.assertTrue(verified);
+        Assert.assertEquals(verifications.get(), 1);
+        Assert.assertEquals(driver.performs().size(), 1);
+        Collection<Sequence> sequences = driver.performs().get(0);
+        Assert.assertEquals(sequences.size(), 2, "The pinch needs a second finger");
+        List<Integer> lengths = new ArrayList<>();
+        for (Sequence sequence : sequences) {
+            lengths.add(((List<?>) sequence.toJson().get("actions")).size());
+        }
+        // swipe 4 + pause 1 + swipe 4 + pinch 4 ticks, the second finger is padded with pauses up to the pinch
+        Assert.assertEquals(lengths, List.of(13, 13));
+    }
+
+    @Test
+    public void emptyBatchSendsNothing() {
+        StubDriver driver = new StubDriver();
+
+        Assert.assertFalse(new GestureBatch(driver).verifyAfter(() -> false).perform());
+        Assert.assertTrue(driver.performs().isEmpty());
+    }
+
+    @Test
+    public void failedVerificationIsReturned() {
+        StubDriver driver = new StubDriver();
+
+        Assert.assertFalse(new GestureBatch(driver).tap(10, 10).verifyAfter(() -> false).perform());
+        Assert.assertEquals(driver.performs().size(), 1);
+    }
+}
@@ -0,0 +1,88 @@
+package utilities;
+
+import io.appium.java_client.ios.IOSDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <b>An IOSDriver that answers locally instead of talking to an Appium server, for device-free tests.</b>
+ * <p>Like {@link StubDriver}, it is created with the constructor for an already running session, which sends no request. Element lookups
+ * follow the find contract of the driver: findElement returns the configured element or throws a NoSuchElementException, findElements
+ * returns it or an empty list. The page source is an XCUITest <code>AppiumAUT</code> document.</p>
+ */
+public class IOSStubDriver extends IOSDriver {
+
+    private final List<By> lookups = new ArrayList<>();
+    private WebElement element;
+    private String pageSource = "<AppiumAUT/>";
+
+    public IOSStubDriver() {
+        super(sessionAddress(), "XCUITest");
+    }
+
+    private static URL sessionAddress() {
+        try {
+            return URI.create("http://127.0.0.1:4723/session/stub").toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * <b>Makes every element lookup return the given element; without one, lookups find nothing.</b>
+     *
+     * @param element the element to return.
+     * @return this stub.
+     */
+    public IOSStubDriver element(WebElement element) {
+        this.element = element;
+        return this;
+    }
+
+    public IOSStubDriver pageSource(String pageSource) {
+        this.pageSource = pageSource;
+        return this;
+    }
+
+    /**
+     * <b>Returns the locators of the element lookups, in call order.</b>
+     *
+     * @return the looked up locators.
+     */
+    public List<By> lookups() {
+        return lookups;
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        lookups.add(by);
+        if (element == null) {
+            throw new NoSuchElementException("No element for " + by);
+        }
+        return element;
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        lookups.add(by);
+        return element == null ? List.of() : List.of(element);
+    }
+
+    @Override
+    public WebDriver context(String name) {
+        return this;
+    }
+
+    @Override
+    public String getPageSource() {
+        return pageSource;
+    }
+}
@@ -0,0 +1,24 @@
+package utilities;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * <b>Device-free tests of when the LocatorProfiler asks for a page snapshot to suggest cheaper strategies.</b>
+ */
+public class LocatorProfilerTest {
+
+    @Test
+    public void asksForASnapshotOncePerXpathAlias() {
+        CompiledLocator icon = CompiledLocator.of("xpath", "//android.widget.ImageView[2]", "Settings icon once");
+
+        Assert.assertTrue(LocatorProfiler.needsSuggestion(icon));
+        Assert.assertFalse(LocatorProfiler.needsSuggestion(icon));
+        Assert.assertFalse(LocatorProfiler.needsSuggestion(icon));
+    }
+
+    @Test
+    public void neverAsksForOtherStrategies() {
+        Assert.assertFalse(LocatorProfiler.needsSuggestion(CompiledLocator.of("id", "btn_login", "Login button once")));
+    }
+}
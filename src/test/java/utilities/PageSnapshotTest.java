@@ -0,0 +1,70 @@
+package utilities;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Set;
+
+/**
+ * <b>Device-free tests of locator evaluation against UiAutomator2 and XCUITest page sources.</b>
+ */
+public class PageSnapshotTest {
+
+    private static final String IOS_SOURCE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<AppiumAUT>"
+            + "<XCUIElementTypeApplication type=\"XCUIElementTypeApplication\" name=\"Shop\" label=\"Shop\" enabled=\"true\" visible=\"true\">"
+            + "<XCUIElementTypeButton type=\"XCUIElementTypeButton\" name=\"login_button\" label=\"Log in\" enabled=\"true\" visible=\"true\"/>"
+            + "<XCUIElementTypeStaticText type=\"XCUIElementTypeStaticText\" name=\"promo_banner\" label=\"Sale\" value=\"50% off\" enabled=\"true\" visible=\"false\"/>"
+            + "</XCUIElementTypeApplication>"
+            + "</AppiumAUT>";
+
+    private static final String ANDROID_SOURCE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<hierarchy rotation=\"0\">"
+            + "<android.widget.FrameLayout resource-id=\"com.shop:id/root\" displayed=\"true\">"
+            + "<android.widget.Button resource-id=\"com.shop:id/login\" content-desc=\"Log in\" text=\"LOG IN\" displayed=\"true\"/>"
+            + "<android.widget.TextView resource-id=\"com.shop:id/promo\" text=\"Sale\" displayed=\"false\"/>"
+            + "</android.widget.FrameLayout>"
+            + "</hierarchy>";
+
+    @Test
+    public void matchesIOSStrategiesAgainstTheNameAttribute() {
+        PageSnapshot snapshot = PageSnapshot.parse(IOS_SOURCE);
+
+        Assert.assertTrue(snapshot.isDisplayed(CompiledLocator.of("accessibility", "login_button", "Login")));
+        Assert.assertTrue(snapshot.isDisplayed(CompiledLocator.of("id", "login_button", "Login")));
+        Assert.assertTrue(snapshot.isDisplayed(CompiledLocator.of("name", "login_button", "Login")));
+        Assert.assertEquals(snapshot.getAttribute(CompiledLocator.of("name", "login_button", "Login"), "label"), "Log in");
+        Assert.assertEquals(snapshot.count(CompiledLocator.of("className", "XCUIElementTypeButton", "Buttons")), 1);
+    }
+
+    @Test
+    public void invisibleIOSElementIsNotDisplayed() {
+        PageSnapshot snapshot = PageSnapshot.parse(IOS_SOURCE);
+        CompiledLocator banner = CompiledLocator.of("accessibility", "promo_banner", "Promo banner");
+
+        Assert.assertNotNull(snapshot.find(banner));
+        Assert.assertFalse(snapshot.isDisplayed(banner));
+        Assert.assertFalse(snapshot.isDisplayed(CompiledLocator.of("accessibility", "checkout_button", "Checkout")));
+    }
+
+    @Test
+    public void labelsSkipHiddenNodesOnBothPlatforms() {
+        Set<String> iosLabels = PageSnapshot.parse(IOS_SOURCE).labels();
+        Assert.assertTrue(iosLabels.contains("Log in"));
+        Assert.assertFalse(iosLabels.contains("50% off"));
+
+        Set<String> androidLabels = PageSnapshot.parse(ANDROID_SOURCE).labels();
+        Assert.assertTrue(androidLabels.contains("LOG IN"));
+        Assert.assertFalse(androidLabels.contains("Sale"));
+    }
+
+    @Test
+    public void matchesAndroidIdsWithAndWithoutPackage() {
+        PageSnapshot snapshot = PageSnapshot.parse(ANDROID_SOURCE);
+
+        Assert.assertTrue(snapshot.isDisplayed(CompiledLocator.of("id", "login", "Login")));
+        Assert.assertTrue(snapshot.isDisplayed(CompiledLocator.of("id", "com.shop:id/login", "Login")));
+        Assert.assertTrue(snapshot.isDisplayed(CompiledLocator.of("accessibility", "Log in", "Login")));
+        Assert.assertFalse(snapshot.isDisplayed(CompiledLocator.of("id", "promo", "Promo")));
+    }
+}
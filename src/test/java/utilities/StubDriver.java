@@ -0,0 +1,174 @@
+package utilities;
+
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Sequence;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <b>An AndroidDriver that answers locally instead of talking to an Appium server, for device-free tests.</b>
+ * <p>It is created with the constructor for an already running session, which sends no request. Scripts, context switches and the page
+ * source are served from this stub: every executed script is recorded, and a script can be given a result or an exception to throw.</p>
+ */
+public class StubDriver extends AndroidDriver {
+
+    private final List<String> scripts = new ArrayList<>();
+    private final List<Object> arguments = new ArrayList<>();
+    private final List<String> contexts = new ArrayList<>();
+    private final Map<String, Object> results = new HashMap<>();
+    private final Map<String, RuntimeException> failures = new HashMap<>();
+    private final List<Collection<Sequence>> performs = new ArrayList<>();
+    private final List<By> lookups = new ArrayList<>();
+    private WebElement element;
+    private String pageSource = "<hierarchy/>";
+
+    public StubDriver() {
+        super(sessionAddress(), "UiAutomator2");
+    }
+
+    private static URL sessionAddress() {
+        try {
+            return URI.create("http://127.0.0.1:4723/session/stub").toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * <b>Makes a script return a result.</b>
+     *
+     * @param script the script name, e.g. flutter:waitFor.
+     * @param result the result to return.
+     * @return this stub.
+     */
+    public StubDriver answer(String script, Object result) {
+        results.put(script, result);
+        return this;
+    }
+
+    /**
+     * <b>Makes a script throw an exception.</b>
+     *
+     * @param script    the script name, e.g. flutter:waitFor.
+     * @param exception the exception to throw.
+     * @return this stub.
+     */
+    public StubDriver fail(String script, RuntimeException exception) {
+        failures.put(script, exception);
+        return this;
+    }
+
+    public StubDriver pageSource(String pageSource) {
+        this.pageSource = pageSource;
+        return this;
+    }
+
+    /**
+     * <b>Makes every element lookup return the given element; without one, lookups find nothing.</b>
+     *
+     * @param element the element to return.
+     * @return this stub.
+     */
+    public StubDriver element(WebElement element) {
+        this.element = element;
+        return this;
+    }
+
+    /**
+     * <b>Returns the names of the executed scripts, in call order.</b>
+     *
+     * @return the script names.
+     */
+    public List<String> scripts() {
+        return scripts;
+    }
+
+    /**
+     * <b>Returns the first argument of each executed script, in call order, null for scripts without arguments.</b>
+     *
+     * @return the script arguments.
+     */
+    public List<Object> arguments() {
+        return arguments;
+    }
+
+    /**
+     * <b>Returns the contexts switched to, in call order.</b>
+     *
+     * @return the context names.
+     */
+    public List<String> contexts() {
+        return contexts;
+    }
+
+    /**
+     * <b>Returns the action sequences of each perform call, in call order.</b>
+     *
+     * @return the performed sequences.
+     */
+    public List<Collection<Sequence>> performs() {
+        return performs;
+    }
+
+    /**
+     * <b>Returns the locators of the element lookups, in call order.</b>
+     *
+     * @return the looked up locators.
+     */
+    public List<By> lookups() {
+        return lookups;
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        scripts.add(script);
+        arguments.add(args.length == 0 ? null : args[0]);
+        RuntimeException failure = failures.get(script);
+        if (failure != null) {
+            throw failure;
+        }
+        return results.get(script);
+    }
+
+    @Override
+    public WebDriver context(String name) {
+        contexts.add(name);
+        return this;
+    }
+
+    @Override
+    public String getPageSource() {
+        return pageSource;
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        lookups.add(by);
+        if (element == null) {
+            throw new NoSuchElementException("No element for " + by);
+        }
+        return element;
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        lookups.add(by);
+        return element == null ? List.of() : List.of(element);
+    }
+
+    @Override
+    public void perform(Collection<Sequence> actions) {
+        performs.add(actions);
+    }
+}
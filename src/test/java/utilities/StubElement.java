@@ -0,0 +1,114 @@
+package utilities;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+
+/**
+ * <b>A WebElement with a fixed text that counts its clicks, returned by the {@link StubDriver} for device-free tests.</b>
+ */
+public class StubElement implements WebElement {
+
+    private final String text;
+    private int clicks;
+
+    public StubElement(String text) {
+        this.text = text;
+    }
+
+    /**
+     * <b>Returns the number of click calls on this element.</b>
+     *
+     * @return the number of clicks.
+     */
+    public int clicks() {
+        return clicks;
+    }
+
+    @Override
+    public void click() {
+        clicks++;
+    }
+
+    @Override
+    public void submit() {
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    @Override
+    public String getTagName() {
+        return "android.widget.TextView";
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        return "text".equals(name) ? text : null;
+    }
+
+    @Override
+    public boolean isSelected() {
+        return false;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return List.of();
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return this;
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        return true;
+    }
+
+    @Override
+    public Point getLocation() {
+        return new Point(0, 0);
+    }
+
+    @Override
+    public Dimension getSize() {
+        return new Dimension(100, 40);
+    }
+
+    @Override
+    public Rectangle getRect() {
+        return new Rectangle(getLocation(), getSize());
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        return "";
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        throw new UnsupportedOperationException("No screenshots of a stub element");
+    }
+}